@@ -2,34 +2,26 @@ package searchengine.config;
 
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
-import org.apache.lucene.morphology.LuceneMorphology;
+import org.apache.lucene.morphology.english.EnglishLuceneMorphology;
 import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
 @Configuration
 @RequiredArgsConstructor
 public class AppConfiguration {
 
-    @Bean(value = "links")
-    public Set<String> getLinks() {
-        return new CopyOnWriteArraySet<>();
-    }
-
-    @Bean(value = "lock")
-    public ReentrantReadWriteLock getLockService() {
-        return new ReentrantReadWriteLock();
+    @Bean
+    @SneakyThrows
+    public RussianLuceneMorphology getRussianLuceneMorphology() {
+        return new RussianLuceneMorphology();
     }
 
     @Bean
     @SneakyThrows
-    public LuceneMorphology getluceneMorphology() {
-        return new RussianLuceneMorphology();
+    public EnglishLuceneMorphology getEnglishLuceneMorphology() {
+        return new EnglishLuceneMorphology();
     }
 
     @Bean
@@ -43,4 +35,52 @@ public class AppConfiguration {
     public JsoupConfiguration getConfiguration(JsoupConfiguration configuration) {
         return configuration;
     }
+
+    @Bean
+    @ConfigurationProperties(prefix = "fetch-settings")
+    public FetchConfiguration getFetchConfiguration(FetchConfiguration configuration) {
+        return configuration;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "crawl-settings")
+    public CrawlConfiguration getCrawlConfiguration(CrawlConfiguration configuration) {
+        return configuration;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "duplicate-settings")
+    public DuplicateConfiguration getDuplicateConfiguration(DuplicateConfiguration configuration) {
+        return configuration;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "pipeline-settings")
+    public PipelineConfiguration getPipelineConfiguration(PipelineConfiguration configuration) {
+        return configuration;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "batch-settings")
+    public BatchConfiguration getBatchConfiguration(BatchConfiguration configuration) {
+        return configuration;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "lemmatizer-settings")
+    public LemmatizerConfiguration getLemmatizerConfiguration(LemmatizerConfiguration configuration) {
+        return configuration;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "storage-settings")
+    public StorageConfiguration getStorageConfiguration(StorageConfiguration configuration) {
+        return configuration;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "search-settings")
+    public SearchConfiguration getSearchConfiguration(SearchConfiguration configuration) {
+        return configuration;
+    }
 }
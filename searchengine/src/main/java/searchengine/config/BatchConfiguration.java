@@ -0,0 +1,14 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+public class BatchConfiguration {
+    private int lemmaPages = 50;
+    private int indexRows = 10000;
+    private long indexFlushInterval = 1000;
+}
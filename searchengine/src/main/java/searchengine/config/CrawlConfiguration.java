@@ -0,0 +1,20 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+public class CrawlConfiguration {
+    private double requestsPerSecond = 5;
+    private int burst = 2;
+    private boolean respectCrawlDelay = true;
+    private int expectedPages = 10000;
+    private boolean bloomFilter = true;
+    private boolean incremental = true;
+    private boolean allowQuery = false;
+    private boolean sitemaps = true;
+    private int maxSitemaps = 50;
+}
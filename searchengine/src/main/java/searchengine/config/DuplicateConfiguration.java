@@ -0,0 +1,14 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+public class DuplicateConfiguration {
+    private boolean enabled = true;
+    private int maxDistance = 3;
+    private int minLemmas = 10;
+}
@@ -0,0 +1,15 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+public class FetchConfiguration {
+    private FetchMode mode = FetchMode.JSOUP;
+    private int maxInFlight = 256;
+    private int maxPerHost = 8;
+    private int timeout = 30000;
+}
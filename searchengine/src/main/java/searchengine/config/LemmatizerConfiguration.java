@@ -0,0 +1,12 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+public class LemmatizerConfiguration {
+    private long cacheSize = 200000;
+}
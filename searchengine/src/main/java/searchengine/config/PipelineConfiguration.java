@@ -0,0 +1,29 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+public class PipelineConfiguration {
+    private Stage fetch = new Stage(8, 200);
+    private Stage lemmatize = new Stage(Runtime.getRuntime().availableProcessors(), 200);
+    private Stage persist = new Stage(2, 200);
+
+    @Getter
+    @Setter
+    public static class Stage {
+        private int threads;
+        private int queueCapacity;
+
+        public Stage() {
+        }
+
+        public Stage(int threads, int queueCapacity) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
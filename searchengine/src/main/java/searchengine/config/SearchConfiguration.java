@@ -0,0 +1,18 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+public class SearchConfiguration {
+    private boolean positions = true;
+    private int rerankDepth = 4;
+    private double proximityBoost = 0.5;
+    private long cacheWeight = 100000;
+    private int cacheDepth = 100;
+    private double bm25K1 = 1.2;
+    private double bm25B = 0.75;
+}
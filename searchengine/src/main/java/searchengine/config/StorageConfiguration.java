@@ -0,0 +1,13 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+public class StorageConfiguration {
+    private boolean compressContent = true;
+    private int compressionLevel = 6;
+}
@@ -10,4 +10,5 @@ public class SearchRequestDto {
     private String site;
     private int offset;
     private int limit;
+    private String cursor;
 }
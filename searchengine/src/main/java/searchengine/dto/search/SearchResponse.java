@@ -1,5 +1,6 @@
 package searchengine.dto.search;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
@@ -11,4 +12,6 @@ public class SearchResponse {
     private final boolean result;
     private final int count;
     private final List<SearchData> data;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String cursor;
 }
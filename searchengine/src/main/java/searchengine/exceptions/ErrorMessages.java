@@ -15,7 +15,10 @@ public enum ErrorMessages {
     INDEXING_NOT_STARTED("Индексация не запущена"),
     PAGE_NOT_FOUND("Данная страница находится за пределами сайтов, указанных в конфигурационном файле"),
     EMPTY_SEARCH("Задан пустой поисковый запрос"),
-    NOT_FOUND("Ничего не найдено");
+    NOT_FOUND("Ничего не найдено"),
+    INVALID_CURSOR("Некорректный курсор выдачи"),
+    INVALID_LIMIT("Некорректное число результатов на странице"),
+    INDEX_IS_LOADING("Индекс загружается, повторите запрос позже");
     private final String value;
 
 }
@@ -1,12 +1,14 @@
 package searchengine.model;
 
 
-import lombok.Getter;
-import lombok.Setter;
+import lombok.*;
 
 import javax.persistence.*;
 
 @Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
 @Getter
 @Setter
 @Table(name = "field")
@@ -23,8 +25,4 @@ public class Field {
 
     @Column(name = "weight")
     private float weight;
-
-    public Field(int rsInt, String rsString) {
-
-    }
 }
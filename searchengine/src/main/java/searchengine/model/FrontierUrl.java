@@ -0,0 +1,40 @@
+package searchengine.model;
+
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.Index;
+import javax.persistence.*;
+
+@Entity
+@Table(name = "frontier", indexes = @Index(name = "frontier_url_idx", columnList = "site_id, url_hash", unique = true))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class FrontierUrl {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(foreignKey = @ForeignKey(name = "FK_FRONTIER_SITE_ID"),
+            name = "site_id", referencedColumnName = "id", nullable = false)
+    @ToString.Exclude
+    private SiteModel site;
+
+    @Column(name = "url_hash", nullable = false)
+    private Long urlHash;
+
+    @Column(name = "url", nullable = false, columnDefinition = "TEXT")
+    private String url;
+
+    @Column(columnDefinition = "enum('PENDING', 'DONE')", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private FrontierStatus status;
+}
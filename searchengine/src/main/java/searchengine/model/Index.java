@@ -42,6 +42,11 @@ public class Index implements Comparable<Index> {
     @Column(name = "`rank`", nullable = false)
     private Float rank;
 
+    @Lob
+    @Column(name = "positions", columnDefinition = "blob")
+    @ToString.Exclude
+    private byte[] positions;
+
     @Override
     public int compareTo(@NotNull Index o) {
         return Double.compare(o.rank, this.rank);
@@ -0,0 +1,10 @@
+package searchengine.model;
+
+public enum Language {
+    RUSSIAN, ENGLISH;
+
+    public static Language of(String lemma) {
+        char first = lemma.isEmpty() ? 0 : lemma.charAt(0);
+        return first >= 'a' && first <= 'z' ? ENGLISH : RUSSIAN;
+    }
+}
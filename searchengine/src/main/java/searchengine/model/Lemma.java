@@ -31,6 +31,10 @@ public class Lemma implements Comparable<Lemma> {
     @Column(name = "lemma", nullable = false, length = 200)
     private String lemma;
 
+    @Column(columnDefinition = "enum('RUSSIAN', 'ENGLISH') default 'RUSSIAN'", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Language language;
+
     @Column(name = "frequency", nullable = false)
     private Integer frequency;
 
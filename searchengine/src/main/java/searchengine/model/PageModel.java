@@ -37,6 +37,41 @@ public class PageModel {
             columnDefinition = "mediumtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci")
     private String content;
 
+    @Lob
+    @Column(name = "compressed_content", columnDefinition = "mediumblob")
+    @ToString.Exclude
+    private byte[] compressedContent;
+
+    @Column(name = "title", columnDefinition = "TEXT")
+    private String title;
+
+    @Column(name = "plain_text", columnDefinition = "mediumtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci")
+    @ToString.Exclude
+    private String text;
+
+    @Lob
+    @Column(name = "token_offsets", columnDefinition = "mediumblob")
+    @ToString.Exclude
+    private byte[] tokenOffsets;
+
+    @Column(name = "doc_length")
+    private Float docLength;
+
+    @Column(name = "etag")
+    private String etag;
+
+    @Column(name = "last_modified")
+    private String lastModified;
+
+    @Column(name = "content_hash")
+    private Long contentHash;
+
+    @Column(name = "sim_hash")
+    private Long simHash;
+
+    @Column(name = "canonical_id")
+    private Integer canonicalId;
+
     @Transient
     private String url;
 
@@ -0,0 +1,47 @@
+package searchengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class FrontierJdbcRepository {
+    private static final int BATCH_SIZE = 1000;
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertPending(int siteId, Map<Long, String> urls) {
+        List<Object[]> rows = new ArrayList<>(urls.size());
+        urls.forEach((hash, url) -> rows.add(new Object[]{siteId, hash, url}));
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO frontier (site_id, url_hash, url, status) "
+                + "VALUES (?, ?, ?, 'PENDING')", rows, BATCH_SIZE, (statement, row) -> {
+            statement.setInt(1, (Integer) row[0]);
+            statement.setLong(2, (Long) row[1]);
+            statement.setString(3, (String) row[2]);
+        });
+    }
+
+    public void markDone(int siteId, long urlHash) {
+        jdbcTemplate.update("UPDATE frontier SET status = 'DONE' WHERE site_id = ? AND url_hash = ?",
+                siteId, urlHash);
+    }
+
+    public boolean hasPending(int siteId) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM frontier WHERE site_id = ? AND status = 'PENDING' LIMIT 1",
+                Integer.class, siteId).isEmpty();
+    }
+
+    public List<FrontierRow> findAllBySite(int siteId) {
+        return jdbcTemplate.query("SELECT url, status FROM frontier WHERE site_id = ?",
+                (resultSet, rowNum) -> new FrontierRow(resultSet.getString("url"),
+                        "DONE".equals(resultSet.getString("status"))), siteId);
+    }
+
+    public void deleteBySite(int siteId) {
+        jdbcTemplate.update("DELETE FROM frontier WHERE site_id = ?", siteId);
+    }
+}
@@ -0,0 +1,4 @@
+package searchengine.repository;
+
+public record FrontierRow(String url, boolean done) {
+}
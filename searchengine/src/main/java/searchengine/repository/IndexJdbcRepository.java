@@ -0,0 +1,67 @@
+package searchengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class IndexJdbcRepository {
+    private static final int JDBC_BATCH_SIZE = 5000;
+    private static final int CHUNK_SIZE = 1000;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * При rewriteBatchedStatements=true драйвер MySQL склеивает пакет в многострочные INSERT.
+     */
+    public void saveAll(Map<Integer, Map<Integer, Float>> lemmaRanksByPage,
+                        Map<Integer, Map<Integer, byte[]>> positionsByPage) {
+        List<IndexRow> rows = new ArrayList<>();
+        lemmaRanksByPage.forEach((pageId, lemmaRanks) -> lemmaRanks.forEach((lemmaId, rank) ->
+                rows.add(new IndexRow(pageId, lemmaId, rank))));
+        jdbcTemplate.batchUpdate("INSERT INTO `index` (page_id, lemma_id, `rank`, positions) VALUES (?, ?, ?, ?)",
+                rows, JDBC_BATCH_SIZE, (statement, row) -> {
+                    statement.setInt(1, row.pageId());
+                    statement.setInt(2, row.lemmaId());
+                    statement.setFloat(3, row.rank());
+                    statement.setBytes(4, positionsByPage.getOrDefault(row.pageId(), Map.of()).get(row.lemmaId()));
+                });
+    }
+
+    public void deleteByPage(int pageId) {
+        jdbcTemplate.update("DELETE FROM `index` WHERE page_id = ?", pageId);
+    }
+
+    public Map<Integer, Map<Integer, byte[]>> findPositions(Collection<Integer> pageIds, Collection<Integer> lemmaIds) {
+        Map<Integer, Map<Integer, byte[]>> positions = new HashMap<>();
+        if (pageIds.isEmpty() || lemmaIds.isEmpty()) {
+            return positions;
+        }
+        List<Integer> pages = new ArrayList<>(pageIds);
+        String lemmaPlaceholders = String.join(", ", Collections.nCopies(lemmaIds.size(), "?"));
+        for (int from = 0; from < pages.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = pages.subList(from, Math.min(pages.size(), from + CHUNK_SIZE));
+            List<Object> args = new ArrayList<>(chunk);
+            args.addAll(lemmaIds);
+            jdbcTemplate.query("SELECT page_id, lemma_id, positions FROM `index` WHERE page_id IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") AND lemma_id IN ("
+                            + lemmaPlaceholders + ") AND positions IS NOT NULL",
+                    (RowCallbackHandler) resultSet -> positions
+                            .computeIfAbsent(resultSet.getInt("page_id"), id -> new HashMap<>())
+                            .put(resultSet.getInt("lemma_id"), resultSet.getBytes("positions")),
+                    args.toArray());
+        }
+        return positions;
+    }
+
+    private record IndexRow(int pageId, int lemmaId, float rank) {
+    }
+}
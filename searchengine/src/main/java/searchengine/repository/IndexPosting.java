@@ -0,0 +1,9 @@
+package searchengine.repository;
+
+public interface IndexPosting {
+    Integer getPageId();
+
+    Integer getLemmaId();
+
+    Float getRank();
+}
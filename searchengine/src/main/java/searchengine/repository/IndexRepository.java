@@ -2,6 +2,8 @@ package searchengine.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import searchengine.model.Index;
 import searchengine.model.Lemma;
 import searchengine.model.PageModel;
@@ -13,4 +15,12 @@ public interface IndexRepository extends JpaRepository<Index, Integer>, JpaSpeci
     Optional<List<Index>> findAllByPageModel(PageModel pageModel);
 
     List<Index> findAllByLemma(Lemma lemma);
+
+    @Query(value = "SELECT i.page_id AS pageId, i.lemma_id AS lemmaId, i.`rank` AS `rank` FROM `index` i " +
+            "JOIN page p ON p.id = i.page_id " +
+            "WHERE p.site_id = :siteId AND i.page_id > :fromPageId AND i.page_id <= :toPageId " +
+            "ORDER BY i.page_id", nativeQuery = true)
+    List<IndexPosting> findPostingsBySite(@Param("siteId") int siteId,
+                                          @Param("fromPageId") int fromPageId,
+                                          @Param("toPageId") int toPageId);
 }
@@ -0,0 +1,104 @@
+package searchengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import searchengine.model.Language;
+
+import java.util.*;
+
+@Repository
+@RequiredArgsConstructor
+@Log4j2
+public class LemmaJdbcRepository {
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_ATTEMPTS = 3;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Строки сортируются, чтобы параллельные upsert брали блокировки в одном порядке;
+     * оставшиеся взаимоблокировки повторяются - запрос откатывается целиком.
+     */
+    public void upsertFrequencies(int siteId, Map<String, Integer> frequencyDeltas) {
+        List<Map.Entry<String, Integer>> rows = new ArrayList<>(new TreeMap<>(frequencyDeltas).entrySet());
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<String, Integer>> chunk = rows.subList(from, Math.min(rows.size(), from + CHUNK_SIZE));
+            Object[] args = new Object[chunk.size() * 4];
+            for (int i = 0; i < chunk.size(); i++) {
+                String lemma = chunk.get(i).getKey();
+                args[i * 4] = siteId;
+                args[i * 4 + 1] = lemma;
+                args[i * 4 + 2] = Language.of(lemma).name();
+                args[i * 4 + 3] = chunk.get(i).getValue();
+            }
+            updateWithRetry("INSERT INTO lemma (site_id, lemma, language, frequency) VALUES "
+                    + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?)"))
+                    + " ON DUPLICATE KEY UPDATE frequency = frequency + VALUES(frequency)", args);
+        }
+    }
+
+    private void updateWithRetry(String sql, Object[] args) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.update(sql, args);
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Lemma upsert deadlock, retry " + attempt);
+            }
+        }
+    }
+
+    public Map<String, Integer> findIds(int siteId, Collection<String> lemmas) {
+        Map<String, Integer> ids = new HashMap<>();
+        RowCallbackHandler handler = resultSet -> ids.put(resultSet.getString("lemma"), resultSet.getInt("id"));
+        List<String> values = new ArrayList<>(lemmas);
+        for (int from = 0; from < values.size(); from += CHUNK_SIZE) {
+            List<String> chunk = values.subList(from, Math.min(values.size(), from + CHUNK_SIZE));
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = siteId;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            jdbcTemplate.query("SELECT id, lemma FROM lemma WHERE site_id = ? AND lemma IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", handler, args);
+        }
+        return ids;
+    }
+
+    public Map<Integer, String> findByPage(int pageId) {
+        Map<Integer, String> lemmas = new HashMap<>();
+        jdbcTemplate.query("SELECT l.id, l.lemma FROM `index` i JOIN lemma l ON l.id = i.lemma_id WHERE i.page_id = ?",
+                (RowCallbackHandler) resultSet -> lemmas.put(resultSet.getInt("id"), resultSet.getString("lemma")),
+                pageId);
+        return lemmas;
+    }
+
+    public void decrementFrequencies(int siteId, Collection<Integer> lemmaIds) {
+        List<Integer> ids = new ArrayList<>(lemmaIds);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            updateWithRetry("UPDATE lemma SET frequency = frequency - 1 WHERE id IN (" + placeholders + ")",
+                    chunk.toArray());
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = siteId;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            updateWithRetry("DELETE FROM lemma WHERE site_id = ? AND frequency <= 0 AND id IN (" + placeholders + ")",
+                    args);
+        }
+    }
+
+    public List<LemmaRow> findAllBySite(int siteId) {
+        return jdbcTemplate.query("SELECT id, lemma, frequency FROM lemma WHERE site_id = ?",
+                (resultSet, rowNum) -> new LemmaRow(resultSet.getInt("id"),
+                        resultSet.getString("lemma"), resultSet.getInt("frequency")), siteId);
+    }
+}
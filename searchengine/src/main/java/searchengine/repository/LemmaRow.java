@@ -0,0 +1,4 @@
+package searchengine.repository;
+
+public record LemmaRow(int id, String lemma, int frequency) {
+}
@@ -0,0 +1,7 @@
+package searchengine.repository;
+
+public interface PageFingerprint {
+    Integer getId();
+
+    Long getSimHash();
+}
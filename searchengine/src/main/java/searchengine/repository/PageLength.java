@@ -0,0 +1,7 @@
+package searchengine.repository;
+
+public interface PageLength {
+    Integer getId();
+
+    Float getDocLength();
+}
@@ -1,10 +1,17 @@
 package searchengine.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.PageModel;
 import searchengine.model.SiteModel;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +19,47 @@ public interface PageRepository extends JpaRepository<PageModel, Integer> {
     Optional<PageModel> findFirstByPathAndSite(String path, SiteModel site);
 
     int countBySite(SiteModel site);
+
+    @Query("SELECT p.id AS id, p.path AS path, p.etag AS etag, p.lastModified AS lastModified, "
+            + "p.contentHash AS contentHash FROM PageModel p WHERE p.site = :site")
+    List<PageState> findStatesBySite(@Param("site") SiteModel site);
+
+    @Query("SELECT p.id AS id, p.path AS path, p.etag AS etag, p.lastModified AS lastModified, "
+            + "p.contentHash AS contentHash FROM PageModel p WHERE p.path = :path AND p.site = :site")
+    Optional<PageState> findStateByPathAndSite(@Param("path") String path, @Param("site") SiteModel site);
+
+    @Query("SELECT p.id FROM PageModel p WHERE p.canonicalId = :canonicalId")
+    List<Integer> findIdsByCanonicalId(@Param("canonicalId") int canonicalId);
+
+    @Query("SELECT p.id AS id, p.path AS path, p.etag AS etag, p.lastModified AS lastModified, "
+            + "p.contentHash AS contentHash FROM PageModel p WHERE p.id IN :ids")
+    List<PageState> findStatesByIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT p.id AS id, p.simHash AS simHash FROM PageModel p "
+            + "WHERE p.site.id = :siteId AND p.simHash IS NOT NULL AND p.canonicalId IS NULL")
+    List<PageFingerprint> findFingerprintsBySite(@Param("siteId") int siteId);
+
+    @Query("SELECT p.id AS id, p.docLength AS docLength FROM PageModel p "
+            + "WHERE p.site.id = :siteId AND p.id > :afterPageId ORDER BY p.id")
+    List<PageLength> findLengthsBySite(@Param("siteId") int siteId,
+                                       @Param("afterPageId") int afterPageId,
+                                       Pageable pageable);
+
+    @Query("SELECT p.content AS content, p.compressedContent AS compressedContent FROM PageModel p WHERE p.id = :id")
+    Optional<StoredContent> findContentById(@Param("id") int id);
+
+    @Query("SELECT p.id AS id, p.path AS path, p.title AS title, p.text AS text, p.tokenOffsets AS tokenOffsets, "
+            + "s.url AS siteUrl, s.name AS siteName FROM PageModel p JOIN p.site s WHERE p.id IN :ids")
+    List<PageSummary> findSummariesByIds(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PageModel p SET p.etag = :etag, p.lastModified = :lastModified WHERE p.id = :id")
+    void updateValidators(@Param("id") int id, @Param("etag") String etag, @Param("lastModified") String lastModified);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PageModel p SET p.canonicalId = NULL, p.etag = NULL, p.lastModified = NULL, p.contentHash = NULL "
+            + "WHERE p.id IN :ids")
+    void releaseAliases(@Param("ids") Collection<Integer> ids);
 }
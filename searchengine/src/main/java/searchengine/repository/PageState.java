@@ -0,0 +1,13 @@
+package searchengine.repository;
+
+public interface PageState {
+    Integer getId();
+
+    String getPath();
+
+    String getEtag();
+
+    String getLastModified();
+
+    Long getContentHash();
+}
@@ -0,0 +1,17 @@
+package searchengine.repository;
+
+public interface PageSummary {
+    Integer getId();
+
+    String getPath();
+
+    String getTitle();
+
+    String getText();
+
+    byte[] getTokenOffsets();
+
+    String getSiteUrl();
+
+    String getSiteName();
+}
@@ -0,0 +1,7 @@
+package searchengine.repository;
+
+public interface StoredContent {
+    String getContent();
+
+    byte[] getCompressedContent();
+}
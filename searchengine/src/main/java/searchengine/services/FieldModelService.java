@@ -0,0 +1,10 @@
+package searchengine.services;
+
+import searchengine.model.Field;
+
+import java.util.List;
+
+public interface FieldModelService {
+
+    List<Field> getFields();
+}
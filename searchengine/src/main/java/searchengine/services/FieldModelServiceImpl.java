@@ -0,0 +1,51 @@
+package searchengine.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import searchengine.model.Field;
+import searchengine.repository.FieldRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class FieldModelServiceImpl implements FieldModelService {
+    private final FieldRepository fieldRepository;
+    private volatile List<Field> fields;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seedDefaults() {
+        if (fieldRepository.count() == 0) {
+            fieldRepository.saveAll(List.of(
+                    Field.builder().name("title").selector("title").weight(1.0f).build(),
+                    Field.builder().name("body").selector("body").weight(0.8f).build()));
+            log.info("Default fields title and body added");
+        }
+        fields = load();
+    }
+
+    @Override
+    public List<Field> getFields() {
+        List<Field> loaded = fields;
+        if (loaded == null) {
+            synchronized (this) {
+                if (fields == null) {
+                    fields = load();
+                }
+                loaded = fields;
+            }
+        }
+        return loaded;
+    }
+
+    private List<Field> load() {
+        List<Field> loaded = new ArrayList<>();
+        fieldRepository.findAll().forEach(loaded::add);
+        return List.copyOf(loaded);
+    }
+}
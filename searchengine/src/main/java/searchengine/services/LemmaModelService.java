@@ -1,31 +1,32 @@
 package searchengine.services;
 
 import org.jetbrains.annotations.NotNull;
-import searchengine.model.Index;
 import searchengine.model.Lemma;
 import searchengine.model.PageModel;
 import searchengine.model.SiteModel;
+import searchengine.services.batch.IndexedPage;
+import searchengine.services.index.PageContext;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 
 
 public interface LemmaModelService {
 
-    CompletableFuture<Set<Index>> indexPage(PageModel pageModel);
+    Map<String, Integer> lemmatize(PageContext page);
 
-    Lemma init(PageModel pageModel, Map.Entry<String, Integer> map);
+    List<IndexedPage> save(PageModel pageModel, Map<String, Float> ranks, Map<String, int[]> positions,
+                           Runnable onStored);
+
+    List<IndexedPage> flush();
 
     @NotNull
-    Set<Lemma> getLemmasByQuery(Map<Lemma, Double> queryLemmas);
+    List<Lemma> getLemmasByQuery(Map<Lemma, Double> queryLemmas);
 
     @NotNull
     Map<Lemma, Double> getLemmaAllSite(Set<String> lemmas);
 
     Map<Lemma, Double> getLemmaBySite(Set<String> lemmas, SiteModel siteModel);
 
-    void deleteLemmas(List<Lemma> lemmas);
-
 }
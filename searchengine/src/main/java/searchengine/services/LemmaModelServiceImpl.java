@@ -3,21 +3,20 @@ package searchengine.services;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Scope;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import searchengine.model.Index;
 import searchengine.model.Lemma;
 import searchengine.model.PageModel;
 import searchengine.model.SiteModel;
 import searchengine.repository.LemmaRepository;
+import searchengine.services.batch.IndexedPage;
+import searchengine.services.batch.LemmaUpsertBatcher;
+import searchengine.services.index.PageContext;
+import searchengine.services.invertedindex.InvertedIndex;
 import searchengine.services.lemmatisator.LemmaFinder;
 import searchengine.services.parser.ParseState;
 
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,57 +26,36 @@ import java.util.stream.Collectors;
 public class LemmaModelServiceImpl implements LemmaModelService {
     private final LemmaFinder lemmaFinder;
     private final LemmaRepository lemmaRepository;
-    private final ObjectProvider<IndexModelService> provider;
+    private final LemmaUpsertBatcher lemmaUpsertBatcher;
     private final ParseState parseState;
-    private final ReentrantReadWriteLock lock;
+    private final InvertedIndex invertedIndex;
+    private final FieldModelService fieldModelService;
 
     @Override
-    @Async
-    public CompletableFuture<Set<Index>> indexPage(PageModel pageModel) {
+    public Map<String, Integer> lemmatize(PageContext page) {
         if (parseState.isStopped()) {
-            return CompletableFuture.completedFuture(new HashSet<>());
+            return new HashMap<>();
         }
-        List<Lemma> lemmas = collect(pageModel);
-        lemmaRepository.saveAllAndFlush(lemmas);
-        Set<Index> indices = provider
-                .stream()
-                .flatMap(indexModelService -> indexModelService.save(lemmas, pageModel).stream())
-                .collect(Collectors.toSet());
-        lock.writeLock().unlock();
-        return CompletableFuture.completedFuture(indices);
+        return lemmaFinder.collect(page, fieldModelService.getFields());
     }
 
-    @NotNull
-    private List<Lemma> collect(PageModel pageModel) {
-        Map<String, Integer> lemmasForContent = lemmaFinder.collect(pageModel.getContent());
-        lock.writeLock().lock();
-        return lemmasForContent
-                .entrySet()
-                .parallelStream()
-                .map(map -> init(pageModel, map))
-                .toList();
+    @Override
+    public List<IndexedPage> save(PageModel pageModel, Map<String, Float> ranks, Map<String, int[]> positions,
+                                  Runnable onStored) {
+        if (parseState.isStopped()) {
+            return new ArrayList<>();
+        }
+        return lemmaUpsertBatcher.add(pageModel, ranks, positions, onStored);
     }
 
-    public Lemma init(PageModel pageModel, Map.Entry<String, Integer> map) {
-        Optional<Lemma> lemmaOptional = lemmaRepository.findFirstByLemmaAndSite(map.getKey(), pageModel.getSite());
-        if (lemmaOptional.isPresent()) {
-            Lemma lemma = lemmaOptional.get();
-            lemma.setFrequency(lemma.getFrequency() + 1);
-            lemma.setRank(map.getValue().floatValue());
-            return lemma;
-        } else {
-            return Lemma.builder()
-                    .site(pageModel.getSite())
-                    .lemma(map.getKey())
-                    .rank(map.getValue().floatValue())
-                    .frequency(1)
-                    .build();
-        }
+    @Override
+    public List<IndexedPage> flush() {
+        return lemmaUpsertBatcher.flush();
     }
 
     @NotNull
     @Override
-    public Set<Lemma> getLemmasByQuery(Map<Lemma, Double> queryLemmas) {
+    public List<Lemma> getLemmasByQuery(Map<Lemma, Double> queryLemmas) {
         double maxPercent = queryLemmas.values().stream().max(Comparator.naturalOrder()).orElse(85D);
         double minPercent = queryLemmas.values().stream().min(Comparator.naturalOrder()).orElse(85D);
 
@@ -87,7 +65,7 @@ public class LemmaModelServiceImpl implements LemmaModelService {
                 .filter(map -> map.getValue() < percent)
                 .sorted(Map.Entry.comparingByValue())
                 .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+                .toList();
     }
 
     @NotNull
@@ -97,7 +75,7 @@ public class LemmaModelServiceImpl implements LemmaModelService {
                 .flatMap(lem -> lemmaRepository.findAllByLemma(lem).stream())
                 .collect(Collectors.toMap(
                         lemma -> lemma,
-                        lemma -> (double) lemma.getFrequency() / lemma.getSite().getPageModels().size() * 100));
+                        this::getFrequencyPercent));
     }
 
     @Override
@@ -108,12 +86,12 @@ public class LemmaModelServiceImpl implements LemmaModelService {
                 .map(Optional::get)
                 .collect(Collectors.toMap(
                         lemma -> lemma,
-                        lemma -> (double) lemma.getFrequency() / lemma.getSite().getPageModels().size() * 100));
+                        this::getFrequencyPercent));
     }
 
-    @Override
-    public void deleteLemmas(List<Lemma> lemmas) {
-        lemmaRepository.deleteAllInBatch(lemmas);
+    private double getFrequencyPercent(Lemma lemma) {
+        int pageCount = invertedIndex.getPageCount(lemma.getSite().getId());
+        return pageCount == 0 ? 100D : (double) lemma.getFrequency() / pageCount * 100;
     }
 
 }
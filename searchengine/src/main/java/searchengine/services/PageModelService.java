@@ -1,18 +1,36 @@
 package searchengine.services;
 
-import searchengine.dto.search.SearchRequestDto;
 import searchengine.model.PageModel;
 import searchengine.model.SiteModel;
+import searchengine.repository.PageState;
+import searchengine.repository.PageSummary;
+import searchengine.services.connection.FetchedPage;
 
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface PageModelService {
-    PageModel get(String url, SiteModel model);
+    PageModel init(String url, SiteModel site);
 
-    PageModel update(String url, SiteModel model);
+    PageModel init(FetchedPage page, SiteModel site);
 
-    PageModel init(String url, SiteModel site);
+    PageModel save(PageModel pageModel);
+
+    PageModel update(int pageId, PageModel pageModel, SiteModel site);
+
+    void delete(int pageId, SiteModel site);
+
+    List<PageState> releaseAliases(int canonicalId);
+
+    Map<String, PageState> getStates(SiteModel site);
+
+    Optional<PageState> getState(String url, SiteModel site);
+
+    Optional<String> getContent(int pageId);
+
+    void updateValidators(int pageId, String etag, String lastModified);
 
-    Set<PageModel> getSearchQueryPages(SearchRequestDto searchRequestDto);
+    List<PageSummary> getSummaries(List<Integer> ids);
 
 }
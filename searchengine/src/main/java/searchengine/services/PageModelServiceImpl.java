@@ -1,78 +1,139 @@
 package searchengine.services;
 
 import lombok.RequiredArgsConstructor;
-import org.jetbrains.annotations.NotNull;
-import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Service;
-import searchengine.dto.search.SearchRequestDto;
-import searchengine.model.Lemma;
+import org.springframework.transaction.support.TransactionTemplate;
 import searchengine.model.PageModel;
 import searchengine.model.SiteModel;
+import searchengine.repository.IndexJdbcRepository;
 import searchengine.repository.PageRepository;
+import searchengine.repository.PageState;
+import searchengine.repository.PageSummary;
+import searchengine.services.batch.IndexBatchWriter;
+import searchengine.services.batch.LemmaUpsertBatcher;
+import searchengine.services.connection.FetchedPage;
 import searchengine.services.connection.WebSiteConnection;
-import searchengine.services.lemmatisator.LemmaFinder;
-import searchengine.services.parser.ParseState;
+import searchengine.services.content.ContentCodec;
+import searchengine.services.duplicate.NearDuplicateIndex;
 
 import java.net.URI;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PageModelServiceImpl implements PageModelService {
     private final PageRepository pageRepository;
-    private final ParseState parseState;
     private final WebSiteConnection webSiteConnection;
     private final IndexModelService indexModelService;
-    private final LemmaFinder lemmaFinder;
-    private final LemmaModelService lemmaModelService;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final ContentCodec contentCodec;
+    private final IndexJdbcRepository indexJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LemmaUpsertBatcher lemmaUpsertBatcher;
+    private final IndexBatchWriter indexBatchWriter;
 
     @Override
-    public PageModel get(String url, SiteModel model) {
-        PageModel pageModel = init(url, model);
-        if (parseState.isStopped()) {
-            return pageModel;
+    public PageModel init(String url, SiteModel site) {
+        return init(webSiteConnection.fetch(url), site);
+    }
+
+    @Override
+    public PageModel init(FetchedPage page, SiteModel site) {
+        return PageModel.builder()
+                .url(page.url())
+                .path(URI.create(page.url()).getPath())
+                .site(site)
+                .code(page.code())
+                .content(page.content())
+                .etag(page.etag())
+                .lastModified(page.lastModified())
+                .contentHash(page.contentHash())
+                .build();
+    }
+
+    @Override
+    public PageModel save(PageModel pageModel) {
+        if (contentCodec.isEnabled() && pageModel.getContent() != null && !pageModel.getContent().isEmpty()) {
+            pageModel.setCompressedContent(contentCodec.compress(pageModel.getContent()));
+            pageModel.setContent("");
         }
         return pageRepository.save(pageModel);
     }
 
+    /**
+     * Отложенные леммы прежней версии отбрасываются, а её строки index дописываются,
+     * чтобы уменьшение частот их увидело.
+     */
     @Override
-    public PageModel update(String url, SiteModel siteModel) {
-        PageModel pageModel = init(url, siteModel);
-        Optional<PageModel> pageOptional = pageRepository.findFirstByPathAndSite(pageModel.getPath(), siteModel);
-        pageOptional.ifPresent(model -> {
-            pageRepository.deleteById(model.getId());
-            indexModelService.delete(model, siteModel);
+    public PageModel update(int pageId, PageModel pageModel, SiteModel site) {
+        lemmaUpsertBatcher.discard(site.getId(), pageId);
+        indexBatchWriter.flushPage(pageId);
+        nearDuplicateIndex.remove(site.getId(), pageId);
+        pageModel.setId(pageId);
+        return transactionTemplate.execute(status -> {
+            indexModelService.delete(PageModel.builder().id(pageId).build(), site);
+            indexJdbcRepository.deleteByPage(pageId);
+            return save(pageModel);
         });
-        return pageRepository.save(pageModel);
     }
 
     @Override
-    public PageModel init(String url, SiteModel site) {
-        Document htmlDocument = webSiteConnection.getHTMLDocument(url);
-        return PageModel.builder()
-                .url(url)
-                .path(URI.create(htmlDocument.location()).getPath())
-                .site(site)
-                .code(htmlDocument.connection().response().statusCode())
-                .content(htmlDocument.html())
-                .build();
+    public void delete(int pageId, SiteModel site) {
+        indexModelService.delete(PageModel.builder().id(pageId).build(), site);
+        nearDuplicateIndex.remove(site.getId(), pageId);
+        pageRepository.deleteById(pageId);
     }
 
     @Override
-    public Set<PageModel> getSearchQueryPages(SearchRequestDto searchRequestDto) {
-        Map<Lemma, Double> queryLemmas = lemmaFinder.getSearchQueryLemma(searchRequestDto);
-        Set<Lemma> lemmas = lemmaModelService.getLemmasByQuery(queryLemmas);
-        Optional<Lemma> lemmaOptional = lemmas.stream().findFirst();
-        return lemmaOptional.map(lemma -> getPagesBySearch(queryLemmas.keySet(), lemma)).orElse(Collections.emptySet());
+    public List<PageState> releaseAliases(int canonicalId) {
+        List<Integer> ids = pageRepository.findIdsByCanonicalId(canonicalId);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        pageRepository.releaseAliases(ids);
+        return pageRepository.findStatesByIds(ids);
     }
 
-    @NotNull
-    private Set<PageModel> getPagesBySearch(Set<Lemma> lemmas, Lemma lem) {
-        Set<PageModel> result = indexModelService.findPagesByLemma(lem);
-        lemmas.stream().map(lemma -> indexModelService.findPagesByLemma(lem)).forEach(result::retainAll);
-        return result;
+    @Override
+    public Map<String, PageState> getStates(SiteModel site) {
+        Map<String, PageState> states = new ConcurrentHashMap<>();
+        pageRepository.findStatesBySite(site).stream()
+                .filter(state -> state.getPath() != null)
+                .forEach(state -> states.put(state.getPath(), state));
+        return states;
+    }
+
+    @Override
+    public Optional<PageState> getState(String url, SiteModel site) {
+        return pageRepository.findStateByPathAndSite(URI.create(url).getPath(), site);
+    }
+
+    @Override
+    public Optional<String> getContent(int pageId) {
+        return pageRepository.findContentById(pageId)
+                .map(stored -> unpack(stored.getContent(), stored.getCompressedContent()));
+    }
+
+    private String unpack(String content, byte[] compressedContent) {
+        return compressedContent != null ? contentCodec.decompress(compressedContent) : content;
+    }
+
+    @Override
+    public void updateValidators(int pageId, String etag, String lastModified) {
+        pageRepository.updateValidators(pageId, etag, lastModified);
+    }
+
+    @Override
+    public List<PageSummary> getSummaries(List<Integer> ids) {
+        Map<Integer, PageSummary> pages = pageRepository.findSummariesByIds(ids)
+                .stream()
+                .collect(Collectors.toMap(PageSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(pages::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 }
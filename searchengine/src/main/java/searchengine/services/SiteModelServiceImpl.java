@@ -15,6 +15,9 @@ import searchengine.model.SiteModel;
 import searchengine.model.Status;
 import searchengine.repository.SiteRepository;
 import searchengine.services.connection.WebSiteConnection;
+import searchengine.services.dictionary.LemmaDictionary;
+import searchengine.services.duplicate.NearDuplicateIndex;
+import searchengine.services.invertedindex.InvertedIndex;
 
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -28,11 +31,19 @@ public class SiteModelServiceImpl implements SiteModelService {
     private final SiteRepository siteRepository;
     private final WebSiteConnection connection;
     private final SitesList sitesList;
+    private final InvertedIndex invertedIndex;
+    private final LemmaDictionary lemmaDictionary;
+    private final NearDuplicateIndex nearDuplicateIndex;
 
     @Override
     public SiteModel reSaveSite(Site site) {
         SiteModel siteModel = init(site);
-        siteRepository.findFirstByUrlIgnoreCase(siteModel.getUrl()).ifPresent(siteRepository::delete);
+        siteRepository.findFirstByUrlIgnoreCase(siteModel.getUrl()).ifPresent(oldSite -> {
+            siteRepository.delete(oldSite);
+            invertedIndex.removeSite(oldSite.getId());
+            lemmaDictionary.removeSite(oldSite.getId());
+            nearDuplicateIndex.removeSite(oldSite.getId());
+        });
         siteRepository.save(siteModel);
         return siteModel;
     }
@@ -45,10 +56,11 @@ public class SiteModelServiceImpl implements SiteModelService {
     @SneakyThrows
     @Override
     public SiteModel init(Site site) {
+        boolean unavailable = getResponseCode(site) >= 400;
         return SiteModel.builder()
-                .status(getResponseCode(site) >= 400 ? Status.FAILED : Status.INDEXING)
+                .status(unavailable ? Status.FAILED : Status.INDEXING)
                 .statusTime(LocalDateTime.now())
-                .lastError(getResponseCode(site) >= 400 ? ErrorMessages.SITE_IS_UNAVAILABLE.getValue() : null)
+                .lastError(unavailable ? ErrorMessages.SITE_IS_UNAVAILABLE.getValue() : null)
                 .url(site.getUrl())
                 .name(site.getName())
                 .pageModels(new HashSet<>())
@@ -100,7 +112,7 @@ public class SiteModelServiceImpl implements SiteModelService {
     }
 
     private int getResponseCode(@NotNull Site site) {
-        return connection.getHTMLDocument(site.getUrl()).connection().response().statusCode();
+        return connection.fetch(site.getUrl()).code();
     }
 
 
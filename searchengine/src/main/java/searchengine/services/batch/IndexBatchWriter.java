@@ -0,0 +1,98 @@
+package searchengine.services.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import searchengine.config.BatchConfiguration;
+import searchengine.config.SearchConfiguration;
+import searchengine.model.PageModel;
+import searchengine.repository.IndexJdbcRepository;
+import searchengine.services.invertedindex.InvertedIndex;
+import searchengine.services.invertedindex.PositionCodec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class IndexBatchWriter {
+    private final IndexJdbcRepository indexJdbcRepository;
+    private final InvertedIndex invertedIndex;
+    private final BatchConfiguration batchConfiguration;
+    private final SearchConfiguration searchConfiguration;
+    private final List<IndexedPage> pending = new ArrayList<>();
+    private int pendingRows;
+
+    public void add(List<IndexedPage> pages) {
+        List<IndexedPage> batch;
+        synchronized (pending) {
+            pending.addAll(pages);
+            pages.forEach(page -> pendingRows += page.lemmaRanks().size());
+            if (pendingRows < batchConfiguration.getIndexRows()) {
+                return;
+            }
+            batch = drain();
+        }
+        write(batch);
+    }
+
+    @Scheduled(fixedDelayString = "${batch-settings.indexFlushInterval:1000}")
+    public void flush() {
+        List<IndexedPage> batch;
+        synchronized (pending) {
+            batch = drain();
+        }
+        write(batch);
+    }
+
+    public void flushPage(int pageId) {
+        List<IndexedPage> batch;
+        synchronized (pending) {
+            if (pending.stream().noneMatch(page -> page.pageModel().getId() == pageId)) {
+                return;
+            }
+            batch = drain();
+        }
+        write(batch);
+    }
+
+    private List<IndexedPage> drain() {
+        List<IndexedPage> batch = new ArrayList<>(pending);
+        pending.clear();
+        pendingRows = 0;
+        return batch;
+    }
+
+    private void write(List<IndexedPage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Integer, Map<Integer, Float>> lemmaRanksByPage = new HashMap<>();
+        Map<Integer, Map<Integer, byte[]>> positionsByPage = new HashMap<>();
+        batch.forEach(page -> {
+            lemmaRanksByPage.put(page.pageModel().getId(), page.lemmaRanks());
+            if (searchConfiguration.isPositions()) {
+                positionsByPage.put(page.pageModel().getId(), encodePositions(page.lemmaPositions()));
+            }
+        });
+        indexJdbcRepository.saveAll(lemmaRanksByPage, positionsByPage);
+        batch.forEach(page -> invertedIndex.add(page.pageModel().getSite().getId(),
+                page.pageModel().getId(), page.lemmaRanks(), lengthOf(page.pageModel())));
+        log.info("Index rows of " + batch.size() + " pages saved");
+        batch.forEach(page -> page.onStored().run());
+    }
+
+    private float lengthOf(PageModel pageModel) {
+        return pageModel.getDocLength() == null ? 0 : pageModel.getDocLength();
+    }
+
+    private Map<Integer, byte[]> encodePositions(Map<Integer, int[]> lemmaPositions) {
+        Map<Integer, byte[]> encoded = new HashMap<>();
+        lemmaPositions.forEach((lemmaId, positions) -> encoded.put(lemmaId, PositionCodec.encode(positions)));
+        return encoded;
+    }
+}
@@ -0,0 +1,9 @@
+package searchengine.services.batch;
+
+import searchengine.model.PageModel;
+
+import java.util.Map;
+
+public record IndexedPage(PageModel pageModel, Map<Integer, Float> lemmaRanks, Map<Integer, int[]> lemmaPositions,
+                          Runnable onStored) {
+}
@@ -0,0 +1,124 @@
+package searchengine.services.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import searchengine.config.BatchConfiguration;
+import searchengine.model.PageModel;
+import searchengine.repository.LemmaJdbcRepository;
+import searchengine.services.dictionary.LemmaDictionary;
+import searchengine.services.dictionary.LemmaEntry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class LemmaUpsertBatcher {
+    private final LemmaJdbcRepository lemmaJdbcRepository;
+    private final LemmaDictionary lemmaDictionary;
+    private final BatchConfiguration batchConfiguration;
+    private final Map<Integer, List<PageLemmas>> pending = new ConcurrentHashMap<>();
+
+    public List<IndexedPage> add(PageModel pageModel, Map<String, Float> lemmas, Map<String, int[]> positions,
+                                 Runnable onStored) {
+        int siteId = pageModel.getSite().getId();
+        List<PageLemmas> sitePending = pending.computeIfAbsent(siteId, id -> new ArrayList<>());
+        List<PageLemmas> batch;
+        synchronized (sitePending) {
+            sitePending.add(new PageLemmas(pageModel, lemmas, positions, onStored));
+            if (sitePending.size() < batchConfiguration.getLemmaPages()) {
+                return new ArrayList<>();
+            }
+            batch = drain(sitePending);
+        }
+        return write(siteId, batch);
+    }
+
+    public List<IndexedPage> flush() {
+        List<IndexedPage> indexedPages = new ArrayList<>();
+        pending.forEach((siteId, sitePending) -> {
+            List<PageLemmas> batch;
+            synchronized (sitePending) {
+                batch = drain(sitePending);
+            }
+            indexedPages.addAll(write(siteId, batch));
+        });
+        return indexedPages;
+    }
+
+    public void discard(int siteId, int pageId) {
+        List<PageLemmas> sitePending = pending.get(siteId);
+        if (sitePending != null) {
+            synchronized (sitePending) {
+                sitePending.removeIf(page -> page.pageModel().getId() == pageId);
+            }
+        }
+    }
+
+    private List<PageLemmas> drain(List<PageLemmas> sitePending) {
+        List<PageLemmas> batch = new ArrayList<>(sitePending);
+        sitePending.clear();
+        return batch;
+    }
+
+    private List<IndexedPage> write(int siteId, List<PageLemmas> batch) {
+        if (batch.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, Integer> frequencyDeltas = new HashMap<>();
+        batch.forEach(page -> page.lemmas().keySet()
+                .forEach(lemma -> frequencyDeltas.merge(lemma, 1, Integer::sum)));
+        lemmaJdbcRepository.upsertFrequencies(siteId, frequencyDeltas);
+        Map<String, Integer> lemmaIds = resolveIds(siteId, frequencyDeltas);
+        log.info("Lemmas of " + batch.size() + " pages saved for site " + siteId);
+        return batch.stream()
+                .map(page -> toIndexedPage(page, lemmaIds))
+                .toList();
+    }
+
+    private Map<String, Integer> resolveIds(int siteId, Map<String, Integer> frequencyDeltas) {
+        Map<String, Integer> lemmaIds = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+        frequencyDeltas.forEach((lemma, delta) -> {
+            LemmaEntry entry = lemmaDictionary.get(siteId, lemma);
+            if (entry == null) {
+                unknown.add(lemma);
+            } else {
+                lemmaDictionary.addFrequency(siteId, lemma, delta);
+                lemmaIds.put(lemma, entry.getId());
+            }
+        });
+        if (!unknown.isEmpty()) {
+            lemmaJdbcRepository.findIds(siteId, unknown).forEach((lemma, id) -> {
+                lemmaDictionary.put(siteId, lemma, id, frequencyDeltas.getOrDefault(lemma, 0));
+                lemmaIds.put(lemma, id);
+            });
+        }
+        return lemmaIds;
+    }
+
+    private IndexedPage toIndexedPage(PageLemmas page, Map<String, Integer> lemmaIds) {
+        Map<Integer, Float> lemmaRanks = new HashMap<>();
+        Map<Integer, int[]> lemmaPositions = new HashMap<>();
+        page.lemmas().forEach((lemma, rank) -> {
+            Integer lemmaId = lemmaIds.get(lemma);
+            if (lemmaId != null) {
+                lemmaRanks.put(lemmaId, rank);
+                int[] positions = page.positions().get(lemma);
+                if (positions != null) {
+                    lemmaPositions.put(lemmaId, positions);
+                }
+            }
+        });
+        return new IndexedPage(page.pageModel(), lemmaRanks, lemmaPositions, page.onStored());
+    }
+
+    private record PageLemmas(PageModel pageModel, Map<String, Float> lemmas, Map<String, int[]> positions,
+                              Runnable onStored) {
+    }
+}
@@ -0,0 +1,98 @@
+package searchengine.services.connection;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import searchengine.config.FetchConfiguration;
+import searchengine.config.JsoupConfiguration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+
+@Component
+@Log4j2
+public class AsyncHttpFetcher {
+    private final JsoupConfiguration jsoupConfiguration;
+    private final FetchConfiguration fetchConfiguration;
+    private final HttpClient httpClient;
+    private final Semaphore inFlight;
+    private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+
+    public AsyncHttpFetcher(JsoupConfiguration getConfiguration, FetchConfiguration fetchConfiguration) {
+        this.jsoupConfiguration = getConfiguration;
+        this.fetchConfiguration = fetchConfiguration;
+        this.inFlight = new Semaphore(fetchConfiguration.getMaxInFlight());
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofMillis(fetchConfiguration.getTimeout()))
+                .build();
+    }
+
+    /**
+     * Callback выполняется в executor, а не в потоках HTTP-клиента, и может блокироваться;
+     * разрешения возвращаются после него.
+     */
+    public void fetch(String url, PageValidators validators, Executor executor,
+                      BiConsumer<FetchedPage, Throwable> callback) {
+        URI uri;
+        Semaphore host;
+        try {
+            uri = URI.create(url);
+            host = hosts.computeIfAbsent(String.valueOf(uri.getHost()),
+                    name -> new Semaphore(fetchConfiguration.getMaxPerHost()));
+            host.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            callback.accept(null, e);
+            return;
+        } catch (RuntimeException e) {
+            callback.accept(null, e);
+            return;
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            host.release();
+            Thread.currentThread().interrupt();
+            callback.accept(null, e);
+            return;
+        }
+        httpClient.sendAsync(request(uri, validators), HttpResponse.BodyHandlers.ofString())
+                .whenCompleteAsync((response, error) -> {
+                    try {
+                        callback.accept(error == null ? toPage(url, response) : null, error);
+                    } finally {
+                        inFlight.release();
+                        host.release();
+                    }
+                }, executor);
+    }
+
+    private HttpRequest request(URI uri, PageValidators validators) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(fetchConfiguration.getTimeout()))
+                .header("User-Agent", jsoupConfiguration.getUserAgent())
+                .header("Referer", jsoupConfiguration.getReferrer())
+                .GET();
+        if (validators.etag() != null) {
+            builder.header("If-None-Match", validators.etag());
+        }
+        if (validators.lastModified() != null) {
+            builder.header("If-Modified-Since", validators.lastModified());
+        }
+        return builder.build();
+    }
+
+    private FetchedPage toPage(String url, HttpResponse<String> response) {
+        return new FetchedPage(url, response.statusCode(), response.body(),
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null));
+    }
+}
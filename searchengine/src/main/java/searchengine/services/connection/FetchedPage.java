@@ -0,0 +1,18 @@
+package searchengine.services.connection;
+
+public record FetchedPage(String url, int code, String content, String etag, String lastModified) {
+    public static final int NOT_MODIFIED = 304;
+
+    public boolean isNotModified() {
+        return code == NOT_MODIFIED;
+    }
+
+    public long contentHash() {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < content.length(); i++) {
+            hash ^= content.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,5 @@
+package searchengine.services.connection;
+
+public record PageValidators(String etag, String lastModified) {
+    public static final PageValidators NONE = new PageValidators(null, null);
+}
@@ -4,12 +4,18 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Component;
+import searchengine.config.FetchConfiguration;
+import searchengine.config.FetchMode;
 import searchengine.config.JsoupConfiguration;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 
 @Component
@@ -19,17 +25,63 @@ import java.io.IOException;
 @Log4j2
 public class WebSiteConnection {
     private final JsoupConfiguration getConfiguration;
+    private final FetchConfiguration fetchConfiguration;
+    private final AsyncHttpFetcher asyncHttpFetcher;
 
 
-    public Document getHTMLDocument(String url) {
+    public FetchedPage fetch(String url) {
+        if (fetchConfiguration.getMode() == FetchMode.JSOUP) {
+            return fetchWithJsoup(url, PageValidators.NONE);
+        }
+        CompletableFuture<FetchedPage> future = new CompletableFuture<>();
+        asyncHttpFetcher.fetch(url, PageValidators.NONE, Runnable::run, (page, error) -> {
+            if (error == null) {
+                future.complete(page);
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            log.error(e.getMessage());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public void fetch(String url, PageValidators validators, Executor executor,
+                      BiConsumer<FetchedPage, Throwable> callback) {
+        if (fetchConfiguration.getMode() == FetchMode.ASYNC) {
+            asyncHttpFetcher.fetch(url, validators, executor, callback);
+            return;
+        }
+        FetchedPage page;
+        try {
+            page = fetchWithJsoup(url, validators);
+        } catch (RuntimeException e) {
+            callback.accept(null, e);
+            return;
+        }
+        callback.accept(page, null);
+    }
+
+    private FetchedPage fetchWithJsoup(String url, PageValidators validators) {
         try {
-            return Jsoup.connect(url)
+            Connection connection = Jsoup.connect(url)
                     .userAgent(getConfiguration.getUserAgent())
                     .referrer(getConfiguration.getReferrer())
                     .followRedirects(false)
                     .ignoreContentType(true)
-                    .ignoreHttpErrors(true)
-                    .get();
+                    .ignoreHttpErrors(true);
+            if (validators.etag() != null) {
+                connection.header("If-None-Match", validators.etag());
+            }
+            if (validators.lastModified() != null) {
+                connection.header("If-Modified-Since", validators.lastModified());
+            }
+            Connection.Response response = connection.execute();
+            return new FetchedPage(url, response.statusCode(), response.body(),
+                    response.header("ETag"), response.header("Last-Modified"));
         } catch (IOException e) {
             log.error(e.getMessage());
             throw new RuntimeException(e);
@@ -0,0 +1,34 @@
+package searchengine.services.crawler;
+
+class BloomFilter {
+    private static final int HASHES = 4;
+    private final long[] bits;
+    private final long bitCount;
+
+    BloomFilter(int expectedInsertions) {
+        long size = Math.max(64L, (long) expectedInsertions * 16);
+        this.bits = new long[(int) ((size + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+    }
+
+    boolean mightContain(long fingerprint) {
+        int low = (int) fingerprint;
+        int high = (int) (fingerprint >>> 32);
+        for (int i = 1; i <= HASHES; i++) {
+            long index = ((low + (long) i * high) & Long.MAX_VALUE) % bitCount;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void put(long fingerprint) {
+        int low = (int) fingerprint;
+        int high = (int) (fingerprint >>> 32);
+        for (int i = 1; i <= HASHES; i++) {
+            long index = ((low + (long) i * high) & Long.MAX_VALUE) % bitCount;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+}
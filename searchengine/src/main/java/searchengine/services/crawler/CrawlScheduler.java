@@ -0,0 +1,327 @@
+package searchengine.services.crawler;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlConfiguration;
+import searchengine.config.JsoupConfiguration;
+import searchengine.exceptions.ErrorMessages;
+import searchengine.model.SiteModel;
+import searchengine.model.Status;
+import searchengine.repository.FrontierJdbcRepository;
+import searchengine.repository.FrontierRow;
+import searchengine.repository.PageState;
+import searchengine.services.PageModelService;
+import searchengine.services.SiteModelService;
+import searchengine.services.connection.FetchedPage;
+import searchengine.services.connection.WebSiteConnection;
+import searchengine.services.index.IndexingPipeline;
+import searchengine.services.index.PageContext;
+import searchengine.services.index.PageListener;
+import searchengine.services.parser.LinkParser;
+import searchengine.services.parser.ParseState;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Log4j2
+public class CrawlScheduler {
+    private static final long RETRY_DELAY = TimeUnit.MILLISECONDS.toNanos(50);
+    private final IndexingPipeline indexingPipeline;
+    private final WebSiteConnection webSiteConnection;
+    private final LinkParser linkParser;
+    private final SiteModelService siteModelService;
+    private final ParseState parseState;
+    private final CrawlConfiguration crawlConfiguration;
+    private final JsoupConfiguration jsoupConfiguration;
+    private final FrontierJdbcRepository frontierJdbcRepository;
+    private final PageModelService pageModelService;
+    private final UrlNormalizer urlNormalizer;
+    private final SitemapLoader sitemapLoader;
+    private final Map<String, SiteFrontier> frontiers = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, RobotsTxt> robots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "crawl-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> nextDispatch;
+
+    public CrawlScheduler(IndexingPipeline indexingPipeline,
+                          WebSiteConnection webSiteConnection,
+                          LinkParser linkParser,
+                          SiteModelService siteModelService,
+                          ParseState parseState,
+                          CrawlConfiguration crawlConfiguration,
+                          JsoupConfiguration getConfiguration,
+                          FrontierJdbcRepository frontierJdbcRepository,
+                          PageModelService pageModelService,
+                          UrlNormalizer urlNormalizer,
+                          SitemapLoader sitemapLoader) {
+        this.indexingPipeline = indexingPipeline;
+        this.webSiteConnection = webSiteConnection;
+        this.linkParser = linkParser;
+        this.siteModelService = siteModelService;
+        this.parseState = parseState;
+        this.crawlConfiguration = crawlConfiguration;
+        this.jsoupConfiguration = getConfiguration;
+        this.frontierJdbcRepository = frontierJdbcRepository;
+        this.pageModelService = pageModelService;
+        this.urlNormalizer = urlNormalizer;
+        this.sitemapLoader = sitemapLoader;
+    }
+
+    public CompletableFuture<SiteModel> crawl(SiteModel siteModel) {
+        if (siteModel.getStatus() == Status.FAILED) {
+            return CompletableFuture.completedFuture(siteModel);
+        }
+        SiteFrontier frontier = createFrontier(siteModel, new HashMap<>(), false, true);
+        seed(frontier, null);
+        return start(frontier);
+    }
+
+    public CompletableFuture<SiteModel> refresh(SiteModel siteModel, LocalDateTime indexedAt) {
+        frontierJdbcRepository.deleteBySite(siteModel.getId());
+        SiteFrontier frontier = createFrontier(siteModel, pageModelService.getStates(siteModel), true, true);
+        seed(frontier, indexedAt);
+        return start(frontier);
+    }
+
+    public boolean canResume(SiteModel siteModel) {
+        return frontierJdbcRepository.hasPending(siteModel.getId());
+    }
+
+    public CompletableFuture<SiteModel> resume(SiteModel siteModel) {
+        SiteFrontier frontier = createFrontier(siteModel, pageModelService.getStates(siteModel), false, false);
+        List<String> pending = new ArrayList<>();
+        for (FrontierRow row : frontierJdbcRepository.findAllBySite(siteModel.getId())) {
+            frontier.markSeen(List.of(row.url()));
+            if (!row.done()) {
+                pending.add(row.url());
+            }
+        }
+        frontier.enqueue(pending);
+        log.info("Crawl of " + siteModel.getUrl() + " is resumed with " + pending.size() + " pending pages");
+        return start(frontier);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private SiteFrontier createFrontier(SiteModel siteModel, Map<String, PageState> savedPages,
+                                        boolean pruneUnvisited, boolean conditional) {
+        String host = getHost(siteModel);
+        RobotsTxt robotsTxt = robots.computeIfAbsent(host, name -> loadRobotsTxt(siteModel.getUrl()));
+        TokenBucket bucket = buckets.computeIfAbsent(host, name -> createBucket(siteModel.getUrl(), robotsTxt));
+        UrlSeenSet seen = new UrlSeenSet(crawlConfiguration.getExpectedPages(), crawlConfiguration.isBloomFilter());
+        return new SiteFrontier(siteModel, bucket, robotsTxt, seen, savedPages, pruneUnvisited, conditional);
+    }
+
+    private void seed(SiteFrontier frontier, LocalDateTime indexedAt) {
+        SiteModel siteModel = frontier.getSiteModel();
+        List<String> seeds = new ArrayList<>();
+        String root = urlNormalizer.normalize(siteModel.getUrl());
+        if (root != null) {
+            seeds.add(root);
+        }
+        if (crawlConfiguration.isSitemaps()) {
+            Map<String, Instant> sitemapDates = new HashMap<>();
+            sitemapLoader.load(siteModel.getUrl(), frontier.getRobotsTxt()).forEach((url, lastModified) -> {
+                String link = urlNormalizer.normalize(url);
+                if (link != null && linkParser.filter(siteModel, link)) {
+                    seeds.add(link);
+                    if (lastModified != null) {
+                        sitemapDates.put(link, lastModified);
+                    }
+                }
+            });
+            frontier.setSitemapDates(sitemapDates,
+                    indexedAt == null ? null : indexedAt.atZone(ZoneId.systemDefault()).toInstant());
+        }
+        offer(frontier, seeds);
+    }
+
+    private CompletableFuture<SiteModel> start(SiteFrontier frontier) {
+        frontiers.put(frontier.getSiteModel().getUrl(), frontier);
+        wakeUp();
+        return frontier.getCompletion();
+    }
+
+    /**
+     * Новые адреса сначала записываются в базу и только потом попадают
+     * в очередь, чтобы после сбоя ни один найденный адрес не потерялся.
+     */
+    private void offer(SiteFrontier frontier, Collection<String> urls) {
+        List<String> allowed = urls.stream()
+                .filter(url -> frontier.getRobotsTxt().isAllowed(urlNormalizer.pathAndQuery(url)))
+                .toList();
+        List<String> fresh = frontier.markSeen(allowed);
+        if (fresh.isEmpty()) {
+            return;
+        }
+        Map<Long, String> rows = new HashMap<>();
+        fresh.forEach(url -> rows.put(UrlSeenSet.fingerprint(url), url));
+        frontierJdbcRepository.insertPending(frontier.getSiteModel().getId(), rows);
+        frontier.enqueue(fresh);
+        wakeUp();
+    }
+
+    private void wakeUp() {
+        dispatcher.execute(this::dispatch);
+    }
+
+    private void dispatch() {
+        long wait = Long.MAX_VALUE;
+        for (SiteFrontier frontier : frontiers.values()) {
+            if (parseState.isStopped()) {
+                frontier.clear();
+            }
+            while (frontier.hasPending()) {
+                if (!indexingPipeline.canSubmit()) {
+                    wait = Math.min(wait, RETRY_DELAY);
+                    break;
+                }
+                long delay = frontier.getBucket().tryAcquire(System.nanoTime());
+                if (delay > 0) {
+                    wait = Math.min(wait, delay);
+                    break;
+                }
+                if (!submit(frontier, frontier.poll())) {
+                    wait = Math.min(wait, RETRY_DELAY);
+                    break;
+                }
+            }
+            if (frontier.isFinished()) {
+                finish(frontier);
+            }
+        }
+        if (nextDispatch != null) {
+            nextDispatch.cancel(false);
+            nextDispatch = null;
+        }
+        if (wait != Long.MAX_VALUE) {
+            nextDispatch = dispatcher.schedule(this::dispatch, wait, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean submit(SiteFrontier frontier, String url) {
+        SiteModel siteModel = frontier.getSiteModel();
+        frontier.getInFlight().incrementAndGet();
+        PageState saved = frontier.takeSaved(getPath(url));
+        PageListener listener = new PageListener() {
+            @Override
+            public void onPage(PageContext page) {
+                offer(frontier, linkParser.getLinks(page.getDocument(), siteModel));
+            }
+
+            @Override
+            public void onStored() {
+                frontierJdbcRepository.markDone(siteModel.getId(), UrlSeenSet.fingerprint(url));
+            }
+
+            @Override
+            public void onDone() {
+                if (frontier.getInFlight().decrementAndGet() == 0) {
+                    wakeUp();
+                }
+            }
+        };
+        boolean accepted = saved != null && frontier.isUnchanged(url)
+                ? indexingPipeline.trySubmitUnchanged(url, siteModel, saved, listener)
+                : indexingPipeline.trySubmit(url, siteModel, saved, frontier.isConditional(), listener);
+        if (!accepted) {
+            frontier.getInFlight().decrementAndGet();
+            frontier.requeue(url, saved);
+            return false;
+        }
+        if (frontier.isStatusTimeDue(System.nanoTime())) {
+            siteModelService.updateTime(siteModel);
+        }
+        return true;
+    }
+
+    private void finish(SiteFrontier frontier) {
+        SiteModel siteModel = frontier.getSiteModel();
+        frontiers.remove(siteModel.getUrl());
+        releaseHost(getHost(siteModel));
+        if (parseState.isStopped()) {
+            siteModel.setStatus(Status.FAILED);
+            siteModel.setLastError(ErrorMessages.STOPPED_BY_THE_USER.getValue());
+        } else {
+            siteModel.setStatus(Status.INDEXED);
+            frontierJdbcRepository.deleteBySite(siteModel.getId());
+            if (frontier.isPruneUnvisited()) {
+                pruneUnvisited(frontier);
+            }
+        }
+        siteModel.setStatusTime(LocalDateTime.now());
+        log.info("Crawl of " + siteModel.getUrl() + " is finished");
+        frontier.getCompletion().complete(siteModel);
+    }
+
+    private void pruneUnvisited(SiteFrontier frontier) {
+        Map<String, PageState> unvisited = frontier.getSavedPages();
+        SiteModel siteModel = frontier.getSiteModel();
+        unvisited.values().forEach(page -> pageModelService.delete(page.getId(), siteModel));
+        unvisited.values().forEach(page -> indexingPipeline.requeueAliases(page.getId(), siteModel));
+        log.info(unvisited.size() + " pages of " + siteModel.getUrl() + " are gone and removed");
+    }
+
+    private void releaseHost(String host) {
+        if (frontiers.values().stream().noneMatch(frontier -> host.equals(getHost(frontier.getSiteModel())))) {
+            robots.remove(host);
+            buckets.remove(host);
+        }
+    }
+
+    private String getHost(SiteModel siteModel) {
+        return URI.create(siteModel.getUrl()).getHost();
+    }
+
+    private String getPath(String url) {
+        try {
+            return URI.create(url).getPath();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private TokenBucket createBucket(String siteUrl, RobotsTxt robotsTxt) {
+        double rate = crawlConfiguration.getRequestsPerSecond();
+        double capacity = crawlConfiguration.getBurst();
+        double crawlDelay = crawlConfiguration.isRespectCrawlDelay() ? robotsTxt.getCrawlDelay() : 0;
+        if (crawlDelay > 0) {
+            rate = Math.min(rate, 1 / crawlDelay);
+            capacity = 1;
+        }
+        log.info("Crawl rate for " + siteUrl + ": " + rate + " requests per second");
+        return new TokenBucket(rate, Math.max(1, capacity));
+    }
+
+    private RobotsTxt loadRobotsTxt(String siteUrl) {
+        try {
+            FetchedPage page = webSiteConnection.fetch(URI.create(siteUrl).resolve("/robots.txt").toString());
+            return page.code() == 200 ? RobotsTxt.parse(page.content(), jsoupConfiguration.getUserAgent()) : RobotsTxt.EMPTY;
+        } catch (RuntimeException e) {
+            log.warn("robots.txt of " + siteUrl + " is not loaded: " + e.getMessage());
+            return RobotsTxt.EMPTY;
+        }
+    }
+}
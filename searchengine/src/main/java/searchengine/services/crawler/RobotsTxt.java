@@ -0,0 +1,141 @@
+package searchengine.services.crawler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class RobotsTxt {
+    public static final RobotsTxt EMPTY = new RobotsTxt(0, List.of(), List.of());
+    private final double crawlDelay;
+    private final List<Rule> rules;
+    private final List<String> sitemaps;
+
+    private RobotsTxt(double crawlDelay, List<Rule> rules, List<String> sitemaps) {
+        this.crawlDelay = crawlDelay;
+        this.rules = rules;
+        this.sitemaps = sitemaps;
+    }
+
+    public static RobotsTxt parse(String content, String userAgent) {
+        String agent = userAgent == null ? "" : userAgent.toLowerCase(Locale.ROOT);
+        Group own = new Group();
+        Group any = new Group();
+        List<String> sitemaps = new ArrayList<>();
+        boolean inOwn = false;
+        boolean inAny = false;
+        boolean groupStarted = false;
+        for (String line : content.split("\r?\n")) {
+            int comment = line.indexOf('#');
+            String rule = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            int colon = rule.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String field = rule.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = rule.substring(colon + 1).trim();
+            if (field.equals("sitemap")) {
+                if (!value.isEmpty()) {
+                    sitemaps.add(value);
+                }
+                continue;
+            }
+            if (field.equals("user-agent")) {
+                if (groupStarted) {
+                    inOwn = false;
+                    inAny = false;
+                    groupStarted = false;
+                }
+                String name = value.toLowerCase(Locale.ROOT);
+                boolean matches = !name.equals("*") && !agent.isEmpty() && agent.contains(name);
+                own.found |= matches;
+                inOwn |= matches;
+                inAny |= name.equals("*");
+                continue;
+            }
+            groupStarted = true;
+            if (inOwn) {
+                own.add(field, value);
+            } else if (inAny) {
+                any.add(field, value);
+            }
+        }
+        Group group = own.found ? own : any;
+        if (group.crawlDelay == 0 && group.rules.isEmpty() && sitemaps.isEmpty()) {
+            return EMPTY;
+        }
+        return new RobotsTxt(group.crawlDelay, group.rules, sitemaps);
+    }
+
+    public double getCrawlDelay() {
+        return crawlDelay;
+    }
+
+    public List<String> getSitemaps() {
+        return sitemaps;
+    }
+
+    public boolean isAllowed(String path) {
+        Rule matched = null;
+        for (Rule rule : rules) {
+            if (rule.matches(path) && (matched == null || rule.length() > matched.length()
+                    || rule.length() == matched.length() && rule.allow())) {
+                matched = rule;
+            }
+        }
+        return matched == null || matched.allow();
+    }
+
+    private static class Group {
+        private final List<Rule> rules = new ArrayList<>();
+        private double crawlDelay;
+        private boolean found;
+
+        private void add(String field, String value) {
+            switch (field) {
+                case "allow" -> {
+                    if (!value.isEmpty()) {
+                        rules.add(Rule.of(true, value));
+                    }
+                }
+                case "disallow" -> {
+                    if (!value.isEmpty()) {
+                        rules.add(Rule.of(false, value));
+                    }
+                }
+                case "crawl-delay" -> crawlDelay = parseDelay(value);
+                default -> {
+                }
+            }
+        }
+    }
+
+    private record Rule(boolean allow, int length, Pattern pattern) {
+        static Rule of(boolean allow, String value) {
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '$' && i == value.length() - 1) {
+                    regex.append('$');
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return new Rule(allow, value.length(), Pattern.compile(regex.toString()));
+        }
+
+        boolean matches(String path) {
+            return pattern.matcher(path).lookingAt();
+        }
+    }
+
+    private static double parseDelay(String value) {
+        try {
+            return Math.max(0, Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package searchengine.services.crawler;
+
+import lombok.Getter;
+import searchengine.model.SiteModel;
+import searchengine.repository.PageState;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+class SiteFrontier {
+    private static final long STATUS_TIME_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private final SiteModel siteModel;
+    private final TokenBucket bucket;
+    private final RobotsTxt robotsTxt;
+    private final UrlSeenSet seen;
+    private final Deque<String> pending = new ArrayDeque<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final CompletableFuture<SiteModel> completion = new CompletableFuture<>();
+    private final Map<String, PageState> savedPages;
+    private final boolean pruneUnvisited;
+    private final boolean conditional;
+    private Map<String, Instant> sitemapDates = Map.of();
+    private Instant indexedAt;
+    private boolean statusTimeUpdated;
+    private long statusTimeUpdatedAt;
+
+    SiteFrontier(SiteModel siteModel, TokenBucket bucket, RobotsTxt robotsTxt, UrlSeenSet seen,
+                 Map<String, PageState> savedPages, boolean pruneUnvisited, boolean conditional) {
+        this.siteModel = siteModel;
+        this.bucket = bucket;
+        this.robotsTxt = robotsTxt;
+        this.seen = seen;
+        this.savedPages = savedPages;
+        this.pruneUnvisited = pruneUnvisited;
+        this.conditional = conditional;
+    }
+
+    void setSitemapDates(Map<String, Instant> sitemapDates, Instant indexedAt) {
+        this.sitemapDates = sitemapDates;
+        this.indexedAt = indexedAt;
+    }
+
+    boolean isStatusTimeDue(long now) {
+        if (statusTimeUpdated && now - statusTimeUpdatedAt < STATUS_TIME_INTERVAL) {
+            return false;
+        }
+        statusTimeUpdated = true;
+        statusTimeUpdatedAt = now;
+        return true;
+    }
+
+    boolean isUnchanged(String url) {
+        Instant lastModified = sitemapDates.get(url);
+        return indexedAt != null && lastModified != null && lastModified.isBefore(indexedAt);
+    }
+
+    PageState takeSaved(String path) {
+        return path == null ? null : savedPages.remove(path);
+    }
+
+    List<String> markSeen(Collection<String> urls) {
+        List<String> fresh = new ArrayList<>();
+        for (String url : urls) {
+            if (seen.add(url)) {
+                fresh.add(url);
+            }
+        }
+        return fresh;
+    }
+
+    synchronized void enqueue(Collection<String> urls) {
+        pending.addAll(urls);
+    }
+
+    synchronized void requeue(String url, PageState saved) {
+        pending.addFirst(url);
+        if (saved != null) {
+            savedPages.put(saved.getPath(), saved);
+        }
+    }
+
+    synchronized String poll() {
+        return pending.poll();
+    }
+
+    synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    synchronized void clear() {
+        pending.clear();
+    }
+
+    synchronized boolean isFinished() {
+        return pending.isEmpty() && inFlight.get() == 0;
+    }
+}
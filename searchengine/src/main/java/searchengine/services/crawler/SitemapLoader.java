@@ -0,0 +1,85 @@
+package searchengine.services.crawler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.springframework.stereotype.Component;
+import searchengine.config.CrawlConfiguration;
+import searchengine.services.connection.FetchedPage;
+import searchengine.services.connection.WebSiteConnection;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class SitemapLoader {
+    private final WebSiteConnection webSiteConnection;
+    private final CrawlConfiguration crawlConfiguration;
+
+    public Map<String, Instant> load(String siteUrl, RobotsTxt robotsTxt) {
+        Map<String, Instant> pages = new HashMap<>();
+        List<String> roots = robotsTxt.getSitemaps().isEmpty()
+                ? List.of(URI.create(siteUrl).resolve("/sitemap.xml").toString())
+                : robotsTxt.getSitemaps();
+        Deque<String> sitemaps = new ArrayDeque<>(roots);
+        Set<String> loaded = new HashSet<>();
+        while (!sitemaps.isEmpty() && loaded.size() < crawlConfiguration.getMaxSitemaps()) {
+            String sitemap = sitemaps.poll();
+            if (loaded.add(sitemap)) {
+                read(sitemap, sitemaps, pages);
+            }
+        }
+        log.info("Sitemaps of " + siteUrl + ": " + loaded.size() + " files, " + pages.size() + " pages");
+        return pages;
+    }
+
+    private void read(String sitemap, Deque<String> sitemaps, Map<String, Instant> pages) {
+        FetchedPage page;
+        try {
+            page = webSiteConnection.fetch(sitemap);
+        } catch (RuntimeException e) {
+            log.warn("Sitemap " + sitemap + " is not loaded: " + e.getMessage());
+            return;
+        }
+        if (page.code() != 200) {
+            return;
+        }
+        Document document = Jsoup.parse(page.content(), sitemap, Parser.xmlParser());
+        for (Element element : document.select("sitemap > loc")) {
+            sitemaps.add(element.text().trim());
+        }
+        for (Element element : document.select("url")) {
+            Element loc = element.selectFirst("loc");
+            if (loc != null) {
+                Element lastmod = element.selectFirst("lastmod");
+                pages.put(loc.text().trim(), lastmod == null ? null : parseDate(lastmod.text().trim()));
+            }
+        }
+    }
+
+    private Instant parseDate(String value) {
+        try {
+            return value.length() == 10
+                    ? LocalDate.parse(value).atStartOfDay().toInstant(ZoneOffset.UTC)
+                    : OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package searchengine.services.crawler;
+
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+public class UrlNormalizer {
+    private static final Set<String> TRACKING_PARAMETERS = Set.of(
+            "gclid", "yclid", "fbclid", "msclkid", "_openstat", "sessionid", "phpsessid");
+
+    public String normalize(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        URI uri;
+        try {
+            uri = new URI(url.trim()).normalize();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!"http".equals(scheme) && !"https".equals(scheme) || uri.getHost() == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(scheme).append("://")
+                .append(uri.getHost().toLowerCase(Locale.ROOT));
+        if (uri.getPort() != -1 && !isDefaultPort(scheme, uri.getPort())) {
+            normalized.append(':').append(uri.getPort());
+        }
+        String path = uri.getRawPath();
+        normalized.append(path == null || path.isEmpty() ? "/" : path);
+        String query = normalizeQuery(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            normalized.append('?').append(query);
+        }
+        return normalized.toString();
+    }
+
+    public boolean isSameSite(String siteUrl, String url) {
+        URI site = URI.create(siteUrl);
+        URI uri = URI.create(url);
+        return stripWww(site.getHost()).equalsIgnoreCase(stripWww(uri.getHost()))
+                && uri.getRawPath().startsWith(site.getRawPath() == null || site.getRawPath().isEmpty()
+                ? "/" : site.getRawPath());
+    }
+
+    public String pathAndQuery(String url) {
+        URI uri = URI.create(url);
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+    }
+
+    private String normalizeQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(query.split("&"))
+                .filter(parameter -> !parameter.isEmpty() && !isTracking(parameter))
+                .sorted()
+                .collect(Collectors.joining("&"));
+    }
+
+    private boolean isTracking(String parameter) {
+        int equals = parameter.indexOf('=');
+        String name = (equals >= 0 ? parameter.substring(0, equals) : parameter).toLowerCase(Locale.ROOT);
+        return name.startsWith("utm_") || TRACKING_PARAMETERS.contains(name);
+    }
+
+    private static boolean isDefaultPort(String scheme, int port) {
+        return "http".equals(scheme) && port == 80 || "https".equals(scheme) && port == 443;
+    }
+
+    private static String stripWww(String host) {
+        return host != null && host.startsWith("www.") ? host.substring(4) : String.valueOf(host);
+    }
+}
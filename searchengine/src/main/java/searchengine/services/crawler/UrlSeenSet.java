@@ -0,0 +1,103 @@
+package searchengine.services.crawler;
+
+import java.util.Locale;
+
+public class UrlSeenSet {
+    private static final long EMPTY = 0L;
+    private final BloomFilter bloomFilter;
+    private long[] table;
+    private int size;
+
+    public UrlSeenSet(int expectedSize, boolean useBloomFilter) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+        this.table = new long[capacity];
+        this.bloomFilter = useBloomFilter ? new BloomFilter(expectedSize) : null;
+    }
+
+    public synchronized boolean add(String url) {
+        long fingerprint = fingerprint(url);
+        if (bloomFilter != null && !bloomFilter.mightContain(fingerprint)) {
+            bloomFilter.put(fingerprint);
+            insert(fingerprint);
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = (int) mix(fingerprint) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == fingerprint) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (bloomFilter != null) {
+            bloomFilter.put(fingerprint);
+        }
+        insert(fingerprint);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void insert(long fingerprint) {
+        if ((size + 1) * 2 > table.length) {
+            resize();
+        }
+        place(table, fingerprint);
+        size++;
+    }
+
+    private void resize() {
+        long[] resized = new long[table.length * 2];
+        for (long fingerprint : table) {
+            if (fingerprint != EMPTY) {
+                place(resized, fingerprint);
+            }
+        }
+        table = resized;
+    }
+
+    private static void place(long[] target, long fingerprint) {
+        int mask = target.length - 1;
+        int slot = (int) mix(fingerprint) & mask;
+        while (target[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        target[slot] = fingerprint;
+    }
+
+    static long fingerprint(String url) {
+        String normalized = normalize(url);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private static String normalize(String url) {
+        int fragment = url.indexOf('#');
+        String withoutFragment = fragment >= 0 ? url.substring(0, fragment) : url;
+        if (withoutFragment.endsWith("/") && !withoutFragment.endsWith("://")) {
+            withoutFragment = withoutFragment.substring(0, withoutFragment.length() - 1);
+        }
+        int schemeEnd = withoutFragment.indexOf("://");
+        if (schemeEnd < 0) {
+            return withoutFragment;
+        }
+        int hostEnd = withoutFragment.indexOf('/', schemeEnd + 3);
+        if (hostEnd < 0) {
+            return withoutFragment.toLowerCase(Locale.ROOT);
+        }
+        return withoutFragment.substring(0, hostEnd).toLowerCase(Locale.ROOT) + withoutFragment.substring(hostEnd);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
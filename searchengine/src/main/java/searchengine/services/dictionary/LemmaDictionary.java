@@ -0,0 +1,52 @@
+package searchengine.services.dictionary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import searchengine.repository.LemmaJdbcRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class LemmaDictionary {
+    private final LemmaJdbcRepository lemmaJdbcRepository;
+    private final Map<Integer, Map<String, LemmaEntry>> sites = new ConcurrentHashMap<>();
+
+    public LemmaEntry get(int siteId, String lemma) {
+        return getSite(siteId).get(lemma);
+    }
+
+    public void put(int siteId, String lemma, int id, int frequencyDelta) {
+        getSite(siteId).computeIfAbsent(lemma, key -> new LemmaEntry(id, 0)).addFrequency(frequencyDelta);
+    }
+
+    public void addFrequency(int siteId, String lemma, int frequencyDelta) {
+        LemmaEntry entry = get(siteId, lemma);
+        if (entry != null) {
+            entry.addFrequency(frequencyDelta);
+        }
+    }
+
+    public void remove(int siteId, String lemma) {
+        getSite(siteId).remove(lemma);
+    }
+
+    public void removeSite(int siteId) {
+        sites.remove(siteId);
+    }
+
+    private Map<String, LemmaEntry> getSite(int siteId) {
+        return sites.computeIfAbsent(siteId, this::load);
+    }
+
+    private Map<String, LemmaEntry> load(int siteId) {
+        Map<String, LemmaEntry> lemmas = new ConcurrentHashMap<>();
+        lemmaJdbcRepository.findAllBySite(siteId)
+                .forEach(row -> lemmas.put(row.lemma(), new LemmaEntry(row.id(), row.frequency())));
+        log.info("Lemma dictionary of site " + siteId + " loaded: " + lemmas.size() + " lemmas");
+        return lemmas;
+    }
+}
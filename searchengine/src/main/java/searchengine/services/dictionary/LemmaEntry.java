@@ -0,0 +1,25 @@
+package searchengine.services.dictionary;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LemmaEntry {
+    private final int id;
+    private final AtomicInteger frequency;
+
+    public LemmaEntry(int id, int frequency) {
+        this.id = id;
+        this.frequency = new AtomicInteger(frequency);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getFrequency() {
+        return frequency.get();
+    }
+
+    void addFrequency(int delta) {
+        frequency.addAndGet(delta);
+    }
+}
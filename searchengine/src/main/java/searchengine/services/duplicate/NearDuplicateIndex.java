@@ -0,0 +1,53 @@
+package searchengine.services.duplicate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import searchengine.config.DuplicateConfiguration;
+import searchengine.repository.PageRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class NearDuplicateIndex {
+    private final PageRepository pageRepository;
+    private final DuplicateConfiguration duplicateConfiguration;
+    private final Map<Integer, SiteFingerprints> sites = new ConcurrentHashMap<>();
+
+    public Long fingerprint(Map<String, Integer> lemmas) {
+        if (!duplicateConfiguration.isEnabled() || lemmas.size() < duplicateConfiguration.getMinLemmas()) {
+            return null;
+        }
+        return SimHash.of(lemmas);
+    }
+
+    public Integer findCanonical(int siteId, long simHash) {
+        return getSite(siteId).findClosest(simHash, duplicateConfiguration.getMaxDistance());
+    }
+
+    public void add(int siteId, int pageId, long simHash) {
+        getSite(siteId).add(pageId, simHash);
+    }
+
+    public void remove(int siteId, int pageId) {
+        getSite(siteId).remove(pageId);
+    }
+
+    public void removeSite(int siteId) {
+        sites.remove(siteId);
+    }
+
+    private SiteFingerprints getSite(int siteId) {
+        return sites.computeIfAbsent(siteId, this::load);
+    }
+
+    private SiteFingerprints load(int siteId) {
+        SiteFingerprints fingerprints = new SiteFingerprints();
+        pageRepository.findFingerprintsBySite(siteId)
+                .forEach(page -> fingerprints.add(page.getId(), page.getSimHash()));
+        return fingerprints;
+    }
+}
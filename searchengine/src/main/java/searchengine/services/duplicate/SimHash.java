@@ -0,0 +1,43 @@
+package searchengine.services.duplicate;
+
+import java.util.Map;
+
+public final class SimHash {
+    private static final int BITS = 64;
+
+    private SimHash() {
+    }
+
+    public static long of(Map<String, Integer> lemmas) {
+        long[] weights = new long[BITS];
+        lemmas.forEach((lemma, count) -> {
+            long hash = hash(lemma);
+            for (int bit = 0; bit < BITS; bit++) {
+                weights[bit] += ((hash >>> bit) & 1L) == 1L ? count : -count;
+            }
+        });
+        long simHash = 0;
+        for (int bit = 0; bit < BITS; bit++) {
+            if (weights[bit] > 0) {
+                simHash |= 1L << bit;
+            }
+        }
+        return simHash;
+    }
+
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,67 @@
+package searchengine.services.duplicate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LSH-таблица отпечатков канонических страниц одного сайта. Отпечаток делится
+ * на 4 полосы по 16 бит; страницы, отличающиеся не более чем в 3 битах,
+ * обязательно совпадают хотя бы в одной полосе, поэтому сравнивать
+ * нужно только с кандидатами из тех же корзин.
+ */
+class SiteFingerprints {
+    static final int BANDS = 4;
+    private static final int BAND_BITS = 64 / BANDS;
+    private final List<Map<Integer, List<long[]>>> bands = new ArrayList<>();
+    private final Map<Integer, Long> fingerprints = new HashMap<>();
+
+    SiteFingerprints() {
+        for (int i = 0; i < BANDS; i++) {
+            bands.add(new HashMap<>());
+        }
+    }
+
+    synchronized Integer findClosest(long simHash, int maxDistance) {
+        Integer closest = null;
+        int closestDistance = maxDistance + 1;
+        for (int band = 0; band < BANDS; band++) {
+            for (long[] candidate : bands.get(band).getOrDefault(key(simHash, band), List.of())) {
+                int distance = SimHash.distance(simHash, candidate[0]);
+                if (distance < closestDistance) {
+                    closestDistance = distance;
+                    closest = (int) candidate[1];
+                }
+            }
+        }
+        return closest;
+    }
+
+    synchronized void add(int pageId, long simHash) {
+        if (fingerprints.put(pageId, simHash) != null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            bands.get(band).computeIfAbsent(key(simHash, band), key -> new ArrayList<>())
+                    .add(new long[]{simHash, pageId});
+        }
+    }
+
+    synchronized void remove(int pageId) {
+        Long simHash = fingerprints.remove(pageId);
+        if (simHash == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            List<long[]> bucket = bands.get(band).get(key(simHash, band));
+            if (bucket != null) {
+                bucket.removeIf(candidate -> candidate[1] == pageId);
+            }
+        }
+    }
+
+    private static int key(long simHash, int band) {
+        return (int) ((simHash >>> (band * BAND_BITS)) & 0xFFFF);
+    }
+}
@@ -11,6 +11,7 @@ import searchengine.exceptions.FaultResponse;
 import searchengine.model.IndexState;
 import searchengine.model.SiteModel;
 import searchengine.services.SiteModelService;
+import searchengine.services.invertedindex.InvertedIndex;
 import searchengine.services.parser.AsyncParserService;
 
 @Service
@@ -20,10 +21,12 @@ public class IndexHandlerImpl implements IndexHandler {
     private final SitesList sitesList;
     private final AsyncParserService parser;
     private final SiteModelService siteModelService;
+    private final InvertedIndex invertedIndex;
 
 
     @Override
     public IndexResponse startIndexing() {
+        checkIndexLoaded();
         if (indexState.isIndexing()) {
             throwException(ErrorMessages.INDEXING_ALREADY_STARTED);
         }
@@ -44,6 +47,7 @@ public class IndexHandlerImpl implements IndexHandler {
 
     @Override
     public IndexResponse indexPage(String url) {
+        checkIndexLoaded();
         SiteModel siteModel = siteModelService.matchAndGetModel(url)
                 .orElseThrow(() -> new ApiRequestException(HttpStatus.NOT_FOUND,
                         new FaultResponse(false, ErrorMessages.PAGE_NOT_FOUND.getValue())));
@@ -53,6 +57,13 @@ public class IndexHandlerImpl implements IndexHandler {
         return new IndexResponse(true);
     }
 
+    private void checkIndexLoaded() {
+        if (!invertedIndex.isLoaded()) {
+            throw new ApiRequestException(HttpStatus.SERVICE_UNAVAILABLE,
+                    new FaultResponse(false, ErrorMessages.INDEX_IS_LOADING.getValue()));
+        }
+    }
+
     private void throwException(ErrorMessages errorMessages) {
         throw new ApiRequestException(HttpStatus.FORBIDDEN, new FaultResponse(false, errorMessages.getValue()));
     }
@@ -0,0 +1,293 @@
+package searchengine.services.index;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import searchengine.config.PipelineConfiguration;
+import searchengine.model.PageModel;
+import searchengine.model.SiteModel;
+import searchengine.repository.PageState;
+import searchengine.services.LemmaModelService;
+import searchengine.services.PageModelService;
+import searchengine.services.batch.IndexBatchWriter;
+import searchengine.services.connection.FetchedPage;
+import searchengine.services.connection.PageValidators;
+import searchengine.services.connection.WebSiteConnection;
+import searchengine.services.duplicate.NearDuplicateIndex;
+import searchengine.services.parser.ParseState;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Component
+@Log4j2
+public class IndexingPipeline {
+    private final PageModelService pageModelService;
+    private final LemmaModelService lemmaModelService;
+    private final IndexBatchWriter indexBatchWriter;
+    private final WebSiteConnection webSiteConnection;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final ParseState parseState;
+    private final PipelineStage<PageTask> fetchStage;
+    private final PipelineStage<LoadedPage> lemmatizeStage;
+    private final PipelineStage<LemmatizedPage> persistStage;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Object idle = new Object();
+
+    public IndexingPipeline(PageModelService pageModelService,
+                            LemmaModelService lemmaModelService,
+                            IndexBatchWriter indexBatchWriter,
+                            WebSiteConnection webSiteConnection,
+                            NearDuplicateIndex nearDuplicateIndex,
+                            ParseState parseState,
+                            PipelineConfiguration pipelineConfiguration,
+                            MeterRegistry meterRegistry) {
+        this.pageModelService = pageModelService;
+        this.lemmaModelService = lemmaModelService;
+        this.indexBatchWriter = indexBatchWriter;
+        this.webSiteConnection = webSiteConnection;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.parseState = parseState;
+        this.fetchStage = createStage("fetch", pipelineConfiguration.getFetch(), this::fetch, meterRegistry);
+        this.lemmatizeStage = createStage("lemmatize", pipelineConfiguration.getLemmatize(), this::lemmatize, meterRegistry);
+        this.persistStage = createStage("persist", pipelineConfiguration.getPersist(), this::persist, meterRegistry);
+        meterRegistry.gauge("indexing.pipeline.in.flight", inFlight);
+    }
+
+    public void submit(String url, SiteModel siteModel, PageState saved, boolean conditional,
+                       PageListener listener) {
+        inFlight.incrementAndGet();
+        PageTask task = new PageTask(url, siteModel, saved, conditional, listener);
+        forward(fetchStage, task, task);
+    }
+
+    public boolean trySubmit(String url, SiteModel siteModel, PageState saved, boolean conditional,
+                             PageListener listener) {
+        inFlight.incrementAndGet();
+        if (fetchStage.offer(new PageTask(url, siteModel, saved, conditional, listener))) {
+            return true;
+        }
+        release();
+        return false;
+    }
+
+    public boolean trySubmitUnchanged(String url, SiteModel siteModel, PageState saved, PageListener listener) {
+        inFlight.incrementAndGet();
+        PageTask task = new PageTask(url, siteModel, saved, true, listener);
+        if (lemmatizeStage.offer(new LoadedPage(task, null, true))) {
+            return true;
+        }
+        release();
+        return false;
+    }
+
+    public boolean canSubmit() {
+        return fetchStage.hasCapacity();
+    }
+
+    /**
+     * Очередь пополняется в отдельном потоке: стадия записи не должна ждать места в очереди загрузки.
+     */
+    public void requeueAliases(int pageId, SiteModel siteModel) {
+        List<PageState> aliases = pageModelService.releaseAliases(pageId);
+        if (aliases.isEmpty()) {
+            return;
+        }
+        URI siteUri = URI.create(siteModel.getUrl());
+        List<PageTask> tasks = aliases.stream()
+                .filter(alias -> alias.getPath() != null)
+                .map(alias -> new PageTask(siteUri.resolve(alias.getPath()).toString(), siteModel, alias,
+                        true, PageListener.NONE))
+                .toList();
+        log.info(tasks.size() + " duplicates of removed page " + pageId + " are queued again");
+        inFlight.addAndGet(tasks.size());
+        CompletableFuture.runAsync(() -> tasks.forEach(task -> forward(fetchStage, task, task)));
+    }
+
+    public void awaitIdle() {
+        synchronized (idle) {
+            while (inFlight.get() > 0) {
+                try {
+                    idle.wait(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchStage.shutdown();
+        lemmatizeStage.shutdown();
+        persistStage.shutdown();
+    }
+
+    private void fetch(PageTask task) {
+        PageValidators validators = task.saved() == null || !task.conditional() ? PageValidators.NONE
+                : new PageValidators(task.saved().getEtag(), task.saved().getLastModified());
+        webSiteConnection.fetch(task.url(), validators, fetchStage.getCallbackExecutor(),
+                (page, error) -> onFetched(task, page, error));
+    }
+
+    private void onFetched(PageTask task, FetchedPage page, Throwable error) {
+        if (error != null) {
+            log.error("Page " + task.url() + " is not loaded", error);
+            done(task);
+            return;
+        }
+        try {
+            if (parseState.isStopped()) {
+                done(task);
+                return;
+            }
+            if (task.saved() != null && task.conditional() && page.isNotModified()) {
+                forward(lemmatizeStage, new LoadedPage(task, null, true), task);
+                return;
+            }
+            PageModel pageModel = pageModelService.init(page, task.siteModel());
+            boolean unchanged = task.saved() != null && task.conditional()
+                    && Objects.equals(task.saved().getContentHash(), pageModel.getContentHash());
+            forward(lemmatizeStage, new LoadedPage(task, pageModel, unchanged), task);
+        } catch (RuntimeException e) {
+            log.error("Page " + task.url() + " is not processed", e);
+            done(task);
+        }
+    }
+
+    private void lemmatize(LoadedPage page) {
+        try {
+            if (parseState.isStopped()) {
+                done(page.task());
+                return;
+            }
+            PageModel pageModel = page.pageModel();
+            if (page.unchanged()) {
+                String content = pageModel != null ? pageModel.getContent()
+                        : pageModelService.getContent(page.task().saved().getId()).orElse("");
+                page.task().listener().onPage(PageContext.parse(page.task().url(), content));
+                forward(persistStage, new LemmatizedPage(page.task(), pageModel, Map.of(), Map.of(), true), page.task());
+                return;
+            }
+            Map<String, Float> ranks = Map.of();
+            Map<String, int[]> positions = Map.of();
+            if (pageModel.getCode() < 400) {
+                PageContext context = PageContext.parse(page.task().url(), pageModel.getContent());
+                page.task().listener().onPage(context);
+                Map<String, Integer> lemmas = lemmaModelService.lemmatize(context);
+                pageModel.setTitle(context.getTitle());
+                pageModel.setText(context.getText());
+                pageModel.setTokenOffsets(context.getTokenOffsets().encode());
+                pageModel.setDocLength(context.getLength());
+                ranks = context.getRanks();
+                positions = context.getPositions();
+                pageModel.setSimHash(nearDuplicateIndex.fingerprint(lemmas));
+            }
+            forward(persistStage, new LemmatizedPage(page.task(), pageModel, ranks, positions, false), page.task());
+        } catch (RuntimeException e) {
+            done(page.task());
+            throw e;
+        }
+    }
+
+    private void persist(LemmatizedPage page) {
+        try {
+            if (parseState.isStopped()) {
+                return;
+            }
+            PageState saved = page.task().saved();
+            if (page.unchanged()) {
+                updateValidators(saved, page.pageModel());
+                page.task().listener().onStored();
+                return;
+            }
+            int siteId = page.task().siteModel().getId();
+            if (saved != null) {
+                nearDuplicateIndex.remove(siteId, saved.getId());
+            }
+            Long simHash = page.pageModel().getSimHash();
+            if (simHash != null) {
+                page.pageModel().setCanonicalId(nearDuplicateIndex.findCanonical(siteId, simHash));
+            }
+            PageModel pageModel;
+            if (saved != null) {
+                pageModel = pageModelService.update(saved.getId(), page.pageModel(), page.task().siteModel());
+                requeueAliases(saved.getId(), page.task().siteModel());
+            } else {
+                pageModel = pageModelService.save(page.pageModel());
+            }
+            if (pageModel.getCode() >= 400) {
+                page.task().listener().onStored();
+                return;
+            }
+            if (pageModel.getCanonicalId() != null) {
+                log.info("Page " + page.task().url() + " is a duplicate of page " + pageModel.getCanonicalId());
+                page.task().listener().onStored();
+                return;
+            }
+            if (simHash != null) {
+                nearDuplicateIndex.add(siteId, pageModel.getId(), simHash);
+            }
+            indexBatchWriter.add(lemmaModelService.save(pageModel, page.ranks(), page.positions(),
+                    page.task().listener()::onStored));
+        } finally {
+            done(page.task());
+        }
+    }
+
+    private void updateValidators(PageState saved, PageModel pageModel) {
+        if (pageModel != null && (!Objects.equals(saved.getEtag(), pageModel.getEtag())
+                || !Objects.equals(saved.getLastModified(), pageModel.getLastModified()))) {
+            pageModelService.updateValidators(saved.getId(), pageModel.getEtag(), pageModel.getLastModified());
+        }
+    }
+
+    private <T> void forward(PipelineStage<T> stage, T item, PageTask task) {
+        try {
+            stage.submit(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done(task);
+        }
+    }
+
+    private void done(PageTask task) {
+        try {
+            task.listener().onDone();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        if (inFlight.decrementAndGet() == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    private static <T> PipelineStage<T> createStage(String name, PipelineConfiguration.Stage settings,
+                                                    Consumer<T> handler,
+                                                    MeterRegistry meterRegistry) {
+        return new PipelineStage<>(name, settings.getThreads(), settings.getQueueCapacity(), handler, meterRegistry);
+    }
+
+    private record PageTask(String url, SiteModel siteModel, PageState saved, boolean conditional,
+                            PageListener listener) {
+    }
+
+    private record LoadedPage(PageTask task, PageModel pageModel, boolean unchanged) {
+    }
+
+    private record LemmatizedPage(PageTask task, PageModel pageModel, Map<String, Float> ranks,
+                                  Map<String, int[]> positions, boolean unchanged) {
+    }
+}
@@ -0,0 +1,58 @@
+package searchengine.services.index;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import searchengine.services.lemmatisator.TokenOffsets;
+
+import java.util.Map;
+
+@Getter
+public class PageContext {
+    private final String url;
+    private final Document document;
+    @Getter(lombok.AccessLevel.NONE)
+    private String title;
+    @Getter(lombok.AccessLevel.NONE)
+    private String text;
+    @Setter
+    private TokenOffsets tokenOffsets = TokenOffsets.EMPTY;
+    @Setter
+    private Map<String, int[]> positions = Map.of();
+    @Setter
+    private Map<String, Float> ranks = Map.of();
+    @Setter
+    private float length;
+
+    public PageContext(String url, Document document) {
+        this.url = url;
+        this.document = document;
+    }
+
+    public static PageContext parse(String url, String html) {
+        return new PageContext(url, Jsoup.parse(html, url));
+    }
+
+    public String getTitle() {
+        if (title == null) {
+            title = document.title();
+        }
+        return title;
+    }
+
+    public String getText() {
+        if (text == null) {
+            text = document.body().text();
+        }
+        return text;
+    }
+
+    public String getFieldText(String selector) {
+        return switch (selector) {
+            case "title" -> getTitle();
+            case "body" -> getText();
+            default -> document.select(selector).text();
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package searchengine.services.index;
+
+public interface PageListener {
+    PageListener NONE = new PageListener() {
+    };
+
+    default void onPage(PageContext page) {
+    }
+
+    default void onDone() {
+    }
+
+    /**
+     * Для индексируемой страницы вызывается после записи её строк lemma и index, возможно позже onDone.
+     */
+    default void onStored() {
+    }
+}
@@ -0,0 +1,101 @@
+package searchengine.services.index;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Log4j2
+public class PipelineStage<T> {
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final ExecutorService workers;
+    private final ExecutorService callbacks;
+    private final Consumer<T> handler;
+    private final AtomicLong processed = new AtomicLong();
+    private final Timer timer;
+
+    public PipelineStage(String name, int threads, int queueCapacity, Consumer<T> handler, MeterRegistry registry) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.handler = handler;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-" + name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger callbackNumber = new AtomicInteger();
+        this.callbacks = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable,
+                    "pipeline-" + name + "-callback-" + callbackNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("indexing.pipeline.queue.depth", queue, BlockingQueue::size)
+                .tag("stage", name)
+                .register(registry);
+        FunctionCounter.builder("indexing.pipeline.processed", processed, AtomicLong::get)
+                .tag("stage", name)
+                .register(registry);
+        this.timer = Timer.builder("indexing.pipeline.duration")
+                .tag("stage", name)
+                .register(registry);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    public void submit(T item) throws InterruptedException {
+        queue.put(item);
+    }
+
+    public boolean offer(T item) {
+        return queue.offer(item);
+    }
+
+    public boolean hasCapacity() {
+        return queue.remainingCapacity() > 0;
+    }
+
+    public Executor getCallbackExecutor() {
+        return callbacks;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+        callbacks.shutdownNow();
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                T item = queue.take();
+                timer.record(() -> handler.accept(item));
+                processed.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Pipeline stage " + name, e);
+            }
+        }
+    }
+}
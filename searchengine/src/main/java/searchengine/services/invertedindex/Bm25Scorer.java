@@ -0,0 +1,35 @@
+package searchengine.services.invertedindex;
+
+public class Bm25Scorer {
+    private final double[] idf;
+    private final double averageLength;
+    private final double k1;
+    private final double b;
+
+    public Bm25Scorer(double[] idf, double averageLength, double k1, double b) {
+        this.idf = idf;
+        this.averageLength = averageLength;
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Размер списка до уплотнения включает удалённые страницы, поэтому число страниц
+     * берётся не меньше него, и IDF остаётся положительным.
+     */
+    public static double idf(int pageCount, int documentFrequency) {
+        int frequency = Math.max(0, documentFrequency);
+        int pages = Math.max(pageCount, frequency);
+        return Math.log(1 + (pages - frequency + 0.5) / (frequency + 0.5));
+    }
+
+    public double score(int[] ranks, int length) {
+        double norm = length == 0 || averageLength == 0 ? k1 : k1 * (1 - b + b * length / averageLength);
+        double score = 0;
+        for (int i = 0; i < ranks.length; i++) {
+            double frequency = (double) ranks[i] / InvertedIndex.RANK_SCALE;
+            score += idf[i] * frequency * (k1 + 1) / (frequency + norm);
+        }
+        return score;
+    }
+}
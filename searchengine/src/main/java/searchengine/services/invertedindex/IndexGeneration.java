@@ -0,0 +1,26 @@
+package searchengine.services.invertedindex;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class IndexGeneration {
+    private final Map<Integer, AtomicLong> sites = new ConcurrentHashMap<>();
+    private final AtomicLong global = new AtomicLong();
+
+    public void bump(int siteId) {
+        sites.computeIfAbsent(siteId, id -> new AtomicLong()).incrementAndGet();
+        global.incrementAndGet();
+    }
+
+    public long get(Integer siteId) {
+        if (siteId == null) {
+            return global.get();
+        }
+        AtomicLong generation = sites.get(siteId);
+        return generation == null ? 0 : generation.get();
+    }
+}
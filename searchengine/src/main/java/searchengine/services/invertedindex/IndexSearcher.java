@@ -0,0 +1,66 @@
+package searchengine.services.invertedindex;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfiguration;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class IndexSearcher {
+    private final InvertedIndex invertedIndex;
+    private final SearchConfiguration searchConfiguration;
+
+    public boolean isReady() {
+        return invertedIndex.isLoaded();
+    }
+
+    public void search(int siteId, List<Integer> lemmaIds, PostingConsumer consumer) {
+        if (lemmaIds.isEmpty()) {
+            return;
+        }
+        PostingCursor[] cursors = lemmaIds.stream()
+                .map(lemmaId -> invertedIndex.getCursor(siteId, lemmaId))
+                .sorted(Comparator.comparingInt(PostingCursor::size))
+                .toArray(PostingCursor[]::new);
+        if (cursors[0].size() > 0) {
+            intersect(cursors, createScorer(siteId, cursors), consumer);
+        }
+    }
+
+    private Bm25Scorer createScorer(int siteId, PostingCursor[] cursors) {
+        int pageCount = invertedIndex.getPageCount(siteId);
+        double[] idf = new double[cursors.length];
+        for (int i = 0; i < cursors.length; i++) {
+            idf[i] = Bm25Scorer.idf(pageCount, cursors[i].size());
+        }
+        return new Bm25Scorer(idf, invertedIndex.getAverageLength(siteId),
+                searchConfiguration.getBm25K1(), searchConfiguration.getBm25B());
+    }
+
+    private void intersect(PostingCursor[] cursors, Bm25Scorer scorer, PostingConsumer consumer) {
+        PostingCursor lead = cursors[0];
+        int[] ranks = new int[cursors.length];
+        boolean hasNext = lead.next();
+        while (hasNext) {
+            int candidate = lead.pageId();
+            ranks[0] = lead.rank();
+            int next = candidate;
+            for (int i = 1; i < cursors.length && next == candidate; i++) {
+                if (!cursors[i].advance(candidate)) {
+                    return;
+                }
+                next = cursors[i].pageId();
+                ranks[i] = cursors[i].rank();
+            }
+            if (next == candidate) {
+                consumer.accept(candidate, scorer.score(ranks, lead.length()));
+                hasNext = lead.next();
+            } else {
+                hasNext = lead.advance(next);
+            }
+        }
+    }
+}
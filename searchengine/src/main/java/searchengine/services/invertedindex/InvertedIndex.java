@@ -0,0 +1,60 @@
+package searchengine.services.invertedindex;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class InvertedIndex {
+    public static final int RANK_SCALE = 100;
+    private final Map<Integer, SiteIndex> sites = new ConcurrentHashMap<>();
+    private final IndexGeneration indexGeneration;
+    private volatile boolean loaded;
+
+    public void add(int siteId, int pageId, Map<Integer, Float> lemmaRanks, float length) {
+        if (lemmaRanks.isEmpty()) {
+            return;
+        }
+        sites.computeIfAbsent(siteId, id -> new SiteIndex()).add(pageId, lemmaRanks, length);
+        indexGeneration.bump(siteId);
+    }
+
+    public void removePage(int siteId, int pageId, Collection<Integer> lemmaIds) {
+        SiteIndex siteIndex = sites.get(siteId);
+        if (siteIndex != null && siteIndex.removePage(pageId, lemmaIds)) {
+            indexGeneration.bump(siteId);
+        }
+    }
+
+    public void removeSite(int siteId) {
+        sites.remove(siteId);
+        indexGeneration.bump(siteId);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded() {
+        loaded = true;
+    }
+
+    public PostingCursor getCursor(int siteId, int lemmaId) {
+        SiteIndex siteIndex = sites.get(siteId);
+        return siteIndex == null ? PostingCursor.empty() : siteIndex.cursor(lemmaId);
+    }
+
+    public int getPageCount(int siteId) {
+        SiteIndex siteIndex = sites.get(siteId);
+        return siteIndex == null ? 0 : siteIndex.getPageCount();
+    }
+
+    public double getAverageLength(int siteId) {
+        SiteIndex siteIndex = sites.get(siteId);
+        return siteIndex == null ? 0 : siteIndex.getAverageLength();
+    }
+}
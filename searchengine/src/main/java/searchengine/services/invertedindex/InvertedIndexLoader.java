@@ -0,0 +1,68 @@
+package searchengine.services.invertedindex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import searchengine.model.SiteModel;
+import searchengine.repository.IndexPosting;
+import searchengine.repository.IndexRepository;
+import searchengine.repository.PageLength;
+import searchengine.repository.PageRepository;
+import searchengine.repository.SiteRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class InvertedIndexLoader {
+    private static final int PAGE_RANGE = 1000;
+    private final InvertedIndex invertedIndex;
+    private final SiteRepository siteRepository;
+    private final PageRepository pageRepository;
+    private final IndexRepository indexRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            siteRepository.findAll().forEach(this::load);
+        } finally {
+            invertedIndex.setLoaded();
+        }
+    }
+
+    private void load(SiteModel siteModel) {
+        int siteId = siteModel.getId();
+        int lastPageId = 0;
+        PageRequest range = PageRequest.of(0, PAGE_RANGE);
+        List<PageLength> pages;
+        while (!(pages = pageRepository.findLengthsBySite(siteId, lastPageId, range)).isEmpty()) {
+            Map<Integer, Float> lengths = new HashMap<>();
+            pages.forEach(page -> lengths.put(page.getId(), page.getDocLength() == null ? 0 : page.getDocLength()));
+            int toPageId = pages.get(pages.size() - 1).getId();
+            addPostings(siteId, indexRepository.findPostingsBySite(siteId, lastPageId, toPageId), lengths);
+            lastPageId = toPageId;
+        }
+        log.info("Inverted index loaded for " + siteModel.getUrl() + ": "
+                + invertedIndex.getPageCount(siteId) + " pages");
+    }
+
+    private void addPostings(int siteId, List<IndexPosting> postings, Map<Integer, Float> lengths) {
+        Map<Integer, Float> lemmaRanks = new HashMap<>();
+        int pageId = 0;
+        for (IndexPosting posting : postings) {
+            if (posting.getPageId() != pageId) {
+                invertedIndex.add(siteId, pageId, lemmaRanks, lengths.getOrDefault(pageId, 0f));
+                lemmaRanks = new HashMap<>();
+                pageId = posting.getPageId();
+            }
+            lemmaRanks.put(posting.getLemmaId(), posting.getRank());
+        }
+        invertedIndex.add(siteId, pageId, lemmaRanks, lengths.getOrDefault(pageId, 0f));
+    }
+}
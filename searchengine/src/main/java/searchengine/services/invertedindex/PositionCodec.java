@@ -0,0 +1,50 @@
+package searchengine.services.invertedindex;
+
+import java.util.Arrays;
+
+public final class PositionCodec {
+    private PositionCodec() {
+    }
+
+    public static byte[] encode(int[] positions) {
+        byte[] data = new byte[positions.length * 2 + 5];
+        int length = 0;
+        int previous = 0;
+        for (int position : positions) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            int value = position - previous;
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+            previous = position;
+        }
+        return Arrays.copyOf(data, length);
+    }
+
+    public static int[] decode(byte[] data) {
+        if (data == null) {
+            return new int[0];
+        }
+        int[] positions = new int[data.length];
+        int count = 0;
+        int previous = 0;
+        int index = 0;
+        while (index < data.length) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[index++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += value;
+            positions[count++] = previous;
+        }
+        return Arrays.copyOf(positions, count);
+    }
+}
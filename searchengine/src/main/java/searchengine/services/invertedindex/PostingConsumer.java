@@ -0,0 +1,6 @@
+package searchengine.services.invertedindex;
+
+@FunctionalInterface
+public interface PostingConsumer {
+    void accept(int pageId, double score);
+}
@@ -0,0 +1,123 @@
+package searchengine.services.invertedindex;
+
+import java.util.Set;
+
+/**
+ * Курсор по сжатому списку вхождений без его полной распаковки.
+ * Через каждые {@link PostingList#SKIP_INTERVAL} записей хранится указатель
+ * пропуска, поэтому {@link #advance(int)} переходит к нужному блоку
+ * экспоненциальным (galloping) поиском и распаковывает только его.
+ */
+public class PostingCursor {
+    private final byte[] data;
+    private final int size;
+    private final int[] skipPageIds;
+    private final int[] skipOffsets;
+    private final int skipCount;
+    private final Set<Integer> deletedPages;
+    private int index = -1;
+    private int position;
+    private int pageId;
+    private int rank;
+    private int length;
+
+    PostingCursor(byte[] data, int size, int[] skipPageIds, int[] skipOffsets, int skipCount,
+                  Set<Integer> deletedPages) {
+        this.data = data;
+        this.size = size;
+        this.skipPageIds = skipPageIds;
+        this.skipOffsets = skipOffsets;
+        this.skipCount = skipCount;
+        this.deletedPages = deletedPages;
+    }
+
+    public static PostingCursor empty() {
+        return new PostingCursor(new byte[0], 0, new int[0], new int[0], 0, Set.of());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int pageId() {
+        return pageId;
+    }
+
+    public int rank() {
+        return rank;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean next() {
+        while (index + 1 < size) {
+            decodeNext();
+            if (deletedPages.isEmpty() || !deletedPages.contains(pageId)) {
+                return true;
+            }
+        }
+        index = size;
+        return false;
+    }
+
+    public boolean advance(int target) {
+        if (index >= 0 && index < size && pageId >= target) {
+            return true;
+        }
+        skipTo(target);
+        while (next()) {
+            if (pageId >= target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void skipTo(int target) {
+        int block = (index + 1) / PostingList.SKIP_INTERVAL;
+        if (block + 1 >= skipCount || skipPageIds[block + 1] >= target) {
+            return;
+        }
+        int low = block + 1;
+        int high = low;
+        int step = 1;
+        while (high < skipCount && skipPageIds[high] < target) {
+            low = high;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, skipCount);
+        while (low + 1 < high) {
+            int middle = (low + high) >>> 1;
+            if (skipPageIds[middle] < target) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        index = low * PostingList.SKIP_INTERVAL - 1;
+        position = skipOffsets[low];
+        pageId = skipPageIds[low];
+    }
+
+    private void decodeNext() {
+        pageId += readVarInt();
+        rank = readVarInt();
+        length = readVarInt();
+        index++;
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,188 @@
+package searchengine.services.invertedindex;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Идентификаторы страниц хранятся varint-разностями вместе с рангом и длиной страницы.
+ * Новые страницы копятся в несжатом хвосте и при заполнении дописываются в конец блока.
+ * Блок только дописывается, а при перестроении создаётся новый массив,
+ * поэтому выданные курсоры остаются корректными без блокировок.
+ */
+public class PostingList {
+    static final int SKIP_INTERVAL = 64;
+    private static final int TAIL_CAPACITY = 64;
+    private byte[] data = new byte[16];
+    private int length;
+    private int size;
+    private int lastPageId;
+    private int[] skipPageIds = new int[1];
+    private int[] skipOffsets = new int[1];
+    private int skipCount;
+    private final int[] tailPageIds = new int[TAIL_CAPACITY];
+    private final int[] tailRanks = new int[TAIL_CAPACITY];
+    private final int[] tailLengths = new int[TAIL_CAPACITY];
+    private int tailSize;
+
+    public synchronized void add(int pageId, int rank, int length) {
+        if (tailSize == TAIL_CAPACITY) {
+            flushTail();
+        }
+        tailPageIds[tailSize] = pageId;
+        tailRanks[tailSize] = rank;
+        tailLengths[tailSize] = length;
+        tailSize++;
+    }
+
+    public synchronized int size() {
+        return size + tailSize;
+    }
+
+    public synchronized PostingCursor cursor(Set<Integer> deletedPages) {
+        if (tailSize > 0) {
+            flushTail();
+        }
+        return new PostingCursor(data, size, skipPageIds, skipOffsets, skipCount, deletedPages);
+    }
+
+    public synchronized Postings snapshot(Set<Integer> deletedPages) {
+        if (tailSize > 0) {
+            flushTail();
+        }
+        return decode(deletedPages);
+    }
+
+    public synchronized void compact(Set<Integer> deletedPages) {
+        Postings postings = snapshot(deletedPages);
+        rewrite(postings.pageIds(), postings.ranks(), postings.lengths(), postings.size());
+    }
+
+    public synchronized boolean remove(int pageId) {
+        PostingCursor cursor = cursor(Set.of());
+        if (!cursor.advance(pageId) || cursor.pageId() != pageId) {
+            return false;
+        }
+        compact(Set.of(pageId));
+        return true;
+    }
+
+    private Postings decode(Set<Integer> deletedPages) {
+        PostingCursor cursor = new PostingCursor(data, size, skipPageIds, skipOffsets, skipCount, deletedPages);
+        int[] pageIds = new int[size];
+        int[] ranks = new int[size];
+        int[] lengths = new int[size];
+        int count = 0;
+        while (cursor.next()) {
+            pageIds[count] = cursor.pageId();
+            ranks[count] = cursor.rank();
+            lengths[count++] = cursor.length();
+        }
+        if (count == size) {
+            return new Postings(pageIds, ranks, lengths);
+        }
+        return new Postings(Arrays.copyOf(pageIds, count), Arrays.copyOf(ranks, count),
+                Arrays.copyOf(lengths, count));
+    }
+
+    private void flushTail() {
+        sortTail();
+        if (size == 0 || tailPageIds[0] > lastPageId) {
+            for (int i = 0; i < tailSize; i++) {
+                append(tailPageIds[i], tailRanks[i], tailLengths[i]);
+            }
+            tailSize = 0;
+            return;
+        }
+        Postings postings = decode(Set.of());
+        int[] pageIds = Arrays.copyOf(postings.pageIds(), size + tailSize);
+        int[] ranks = Arrays.copyOf(postings.ranks(), size + tailSize);
+        int[] lengths = Arrays.copyOf(postings.lengths(), size + tailSize);
+        int count = mergeTail(pageIds, ranks, lengths, size);
+        rewrite(pageIds, ranks, lengths, count);
+    }
+
+    private void rewrite(int[] pageIds, int[] ranks, int[] lengths, int count) {
+        data = new byte[Math.max(16, count * 2)];
+        skipPageIds = new int[count / SKIP_INTERVAL + 1];
+        skipOffsets = new int[skipPageIds.length];
+        length = 0;
+        size = 0;
+        lastPageId = 0;
+        skipCount = 0;
+        tailSize = 0;
+        for (int i = 0; i < count; i++) {
+            append(pageIds[i], ranks[i], lengths[i]);
+        }
+    }
+
+    private void append(int pageId, int rank, int length) {
+        if (size % SKIP_INTERVAL == 0) {
+            addSkip();
+        }
+        ensureCapacity(15);
+        writeVarInt(pageId - lastPageId);
+        writeVarInt(rank);
+        writeVarInt(length);
+        lastPageId = pageId;
+        size++;
+    }
+
+    private void addSkip() {
+        if (skipCount == skipPageIds.length) {
+            skipPageIds = Arrays.copyOf(skipPageIds, skipCount * 2);
+            skipOffsets = Arrays.copyOf(skipOffsets, skipCount * 2);
+        }
+        skipPageIds[skipCount] = lastPageId;
+        skipOffsets[skipCount++] = length;
+    }
+
+    private int mergeTail(int[] pageIds, int[] ranks, int[] lengths, int count) {
+        int i = count - 1;
+        int j = tailSize - 1;
+        int k = count + tailSize - 1;
+        while (j >= 0) {
+            if (i >= 0 && pageIds[i] > tailPageIds[j]) {
+                pageIds[k] = pageIds[i];
+                ranks[k] = ranks[i];
+                lengths[k--] = lengths[i--];
+            } else {
+                pageIds[k] = tailPageIds[j];
+                ranks[k] = tailRanks[j];
+                lengths[k--] = tailLengths[j--];
+            }
+        }
+        return count + tailSize;
+    }
+
+    private void sortTail() {
+        for (int i = 1; i < tailSize; i++) {
+            int pageId = tailPageIds[i];
+            int rank = tailRanks[i];
+            int length = tailLengths[i];
+            int j = i - 1;
+            while (j >= 0 && tailPageIds[j] > pageId) {
+                tailPageIds[j + 1] = tailPageIds[j];
+                tailRanks[j + 1] = tailRanks[j];
+                tailLengths[j + 1] = tailLengths[j];
+                j--;
+            }
+            tailPageIds[j + 1] = pageId;
+            tailRanks[j + 1] = rank;
+            tailLengths[j + 1] = length;
+        }
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package searchengine.services.invertedindex;
+
+public record Postings(int[] pageIds, int[] ranks, int[] lengths) {
+    public static final Postings EMPTY = new Postings(new int[0], new int[0], new int[0]);
+
+    public int size() {
+        return pageIds.length;
+    }
+
+    public boolean isEmpty() {
+        return pageIds.length == 0;
+    }
+}
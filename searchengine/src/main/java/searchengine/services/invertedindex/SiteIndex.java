@@ -0,0 +1,105 @@
+package searchengine.services.invertedindex;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+class SiteIndex {
+    private static final int COMPACT_THRESHOLD = 1024;
+    private final Map<Integer, PostingList> postings = new ConcurrentHashMap<>();
+    private final Map<Integer, Float> livePages = new ConcurrentHashMap<>();
+    private final Set<Integer> deletedPages = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, Collection<Integer>> deletedLemmas = new ConcurrentHashMap<>();
+    private final AtomicInteger pageCount = new AtomicInteger();
+    private final DoubleAdder totalLength = new DoubleAdder();
+    private final AtomicInteger lengthCount = new AtomicInteger();
+
+    void add(int pageId, Map<Integer, Float> lemmaRanks, float length) {
+        if (livePages.containsKey(pageId)) {
+            removePage(pageId, null);
+        }
+        if (deletedPages.contains(pageId)) {
+            purge(pageId);
+        }
+        int storedLength = length > 0 ? Math.max(1, Math.round(length)) : 0;
+        lemmaRanks.forEach((lemmaId, rank) -> postings
+                .computeIfAbsent(lemmaId, id -> new PostingList())
+                .add(pageId, Math.round(rank * InvertedIndex.RANK_SCALE), storedLength));
+        if (livePages.put(pageId, length) == null) {
+            pageCount.incrementAndGet();
+            addLength(length, 1);
+        }
+    }
+
+    boolean removePage(int pageId, Collection<Integer> lemmaIds) {
+        Float length = livePages.remove(pageId);
+        if (length == null) {
+            return false;
+        }
+        if (lemmaIds != null) {
+            deletedLemmas.put(pageId, List.copyOf(lemmaIds));
+        }
+        deletedPages.add(pageId);
+        pageCount.decrementAndGet();
+        addLength(-length, -1);
+        if (deletedPages.size() >= COMPACT_THRESHOLD) {
+            compact();
+        }
+        return true;
+    }
+
+    PostingCursor cursor(int lemmaId) {
+        PostingList postingList = postings.get(lemmaId);
+        return postingList == null ? PostingCursor.empty() : postingList.cursor(deletedPages);
+    }
+
+    int getPageCount() {
+        return pageCount.get();
+    }
+
+    double getAverageLength() {
+        int count = lengthCount.get();
+        return count <= 0 ? 0 : totalLength.sum() / count;
+    }
+
+    private void addLength(float length, int count) {
+        if (length != 0) {
+            totalLength.add(length);
+            lengthCount.addAndGet(count);
+        }
+    }
+
+    /**
+     * Страница, обновлённая под прежним идентификатором, вычищается из списков
+     * своих старых лемм до отметки об удалении, иначе отметка скрыла бы
+     * и новые вхождения, а старые вернулись бы в выдачу.
+     */
+    private synchronized void purge(int pageId) {
+        if (!deletedPages.contains(pageId)) {
+            return;
+        }
+        Collection<Integer> lemmaIds = deletedLemmas.remove(pageId);
+        (lemmaIds == null ? postings.keySet() : lemmaIds).forEach(lemmaId -> {
+            PostingList postingList = postings.get(lemmaId);
+            if (postingList != null) {
+                postingList.remove(pageId);
+            }
+        });
+        deletedPages.remove(pageId);
+    }
+
+    private synchronized void compact() {
+        if (deletedPages.size() < COMPACT_THRESHOLD) {
+            return;
+        }
+        Set<Integer> compacted = Set.copyOf(deletedPages);
+        postings.values().forEach(postingList -> postingList.compact(compacted));
+        postings.values().removeIf(postingList -> postingList.size() == 0);
+        deletedPages.removeAll(compacted);
+        deletedLemmas.keySet().removeAll(compacted);
+    }
+}
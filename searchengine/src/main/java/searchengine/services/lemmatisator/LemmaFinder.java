@@ -1,107 +1,142 @@
 package searchengine.services.lemmatisator;
 
-import org.apache.lucene.morphology.LuceneMorphology;
-import org.jetbrains.annotations.NotNull;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.safety.Safelist;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
-import searchengine.dto.search.SearchRequestDto;
+import searchengine.model.Field;
 import searchengine.model.Lemma;
 import searchengine.model.SiteModel;
 import searchengine.services.LemmaModelService;
-import searchengine.services.SiteModelService;
+import searchengine.services.index.PageContext;
 
-import java.util.Arrays;
-import java.util.Locale;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 @Component
 public class LemmaFinder {
-    private static final String[] PARTICLES_NAMES = new String[]{"МЕЖД", "ПРЕДЛ", "СОЮЗ", "ЧАСТ", "МС", "МС-П", "ВВОДН"};
-    private static final String EXCESS_TAGS = "<br>|<p>|&[a-z]+;";
-    private final LuceneMorphology luceneMorphology;
+    private static final String BODY_SELECTOR = "body";
+    private final WordFormCache wordFormCache;
     private final LemmaModelService lemmaModelService;
-    private final SiteModelService siteModelService;
 
-    public LemmaFinder(LuceneMorphology luceneMorphology,
-                       @Lazy LemmaModelService lemmaModelService,
-                       SiteModelService siteModelService) {
-        this.luceneMorphology = luceneMorphology;
+    public LemmaFinder(WordFormCache wordFormCache, @Lazy LemmaModelService lemmaModelService) {
+        this.wordFormCache = wordFormCache;
         this.lemmaModelService = lemmaModelService;
-        this.siteModelService = siteModelService;
     }
 
-    public Map<String, Integer> collect(String text) {
-        Predicate<String> filter = getStringPredicate();
-        Map<String, Integer> lemmas = new ConcurrentHashMap<>();
-        Arrays.stream(arrayContainsRussianWords(htmlToText(text)))
-                .filter(filter)
-                .map(word -> luceneMorphology.getNormalForms(word).get(0))
-                .forEach(word -> lemmas.merge(word, 1, Integer::sum));
+    public Map<String, Integer> collect(PageContext page, List<Field> fields) {
+        TokenOffsets offsets = new TokenOffsets();
+        WordCounts bodyCounts = new WordCounts();
+        WordTokenizer bodyTokenizer = new WordTokenizer(bodyCounts, offsets);
+        bodyTokenizer.feed(page.getText());
+        String[] bodyLemmas = lemmatize(bodyCounts);
+        Map<String, Integer> lemmas = new HashMap<>();
+        Map<String, Float> ranks = new HashMap<>();
+        float length = 0;
+        for (Field field : fields) {
+            boolean body = BODY_SELECTOR.equals(field.getSelector());
+            WordCounts counts = body ? bodyCounts : tokenize(page.getFieldText(field.getSelector()));
+            String[] entryLemmas = body ? bodyLemmas : lemmatize(counts);
+            for (int i = 0; i < counts.size(); i++) {
+                if (entryLemmas[i] != null) {
+                    lemmas.merge(entryLemmas[i], counts.count(i), Integer::sum);
+                    ranks.merge(entryLemmas[i], field.getWeight() * counts.count(i), Float::sum);
+                    length += field.getWeight() * counts.count(i);
+                }
+            }
+        }
+        page.setTokenOffsets(offsets);
+        page.setPositions(collectPositions(bodyTokenizer.entries(), bodyLemmas));
+        page.setRanks(ranks);
+        page.setLength(length);
         return lemmas;
     }
 
-    @NotNull
-    private Predicate<String> getStringPredicate() {
-        return s -> !s.isEmpty()
-                && hasParticleProperty(s)
-                && !luceneMorphology.getNormalForms(s).isEmpty()
-                && s.length() > 1;
+    private String[] lemmatize(WordCounts counts) {
+        String[] entryLemmas = new String[counts.size()];
+        for (int i = 0; i < entryLemmas.length; i++) {
+            WordForm wordForm = wordFormCache.get(counts.word(i));
+            entryLemmas[i] = wordForm.isSkipped() ? null : wordForm.normalForm();
+        }
+        return entryLemmas;
     }
 
-    public Map<String, String> collectLemmasAndQueryWord(String text) {
-        Map<String, String> lemmas = new ConcurrentHashMap<>();
+    private Map<String, int[]> collectPositions(int[] tokenEntries, String[] entryLemmas) {
+        Map<String, Integer> lemmaNumbers = new HashMap<>();
+        int[] entryNumbers = new int[entryLemmas.length];
+        for (int i = 0; i < entryLemmas.length; i++) {
+            entryNumbers[i] = entryLemmas[i] == null ? -1
+                    : lemmaNumbers.computeIfAbsent(entryLemmas[i], lemma -> lemmaNumbers.size());
+        }
+        int[] sizes = new int[lemmaNumbers.size()];
+        for (int entry : tokenEntries) {
+            if (entryNumbers[entry] >= 0) {
+                sizes[entryNumbers[entry]]++;
+            }
+        }
+        int[][] positions = new int[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            positions[i] = new int[sizes[i]];
+        }
+        int[] filled = new int[sizes.length];
+        for (int token = 0; token < tokenEntries.length; token++) {
+            int lemma = entryNumbers[tokenEntries[token]];
+            if (lemma >= 0) {
+                positions[lemma][filled[lemma]++] = token;
+            }
+        }
+        Map<String, int[]> result = new HashMap<>();
+        lemmaNumbers.forEach((lemma, number) -> {
+            if (sizes[number] > 0) {
+                result.put(lemma, positions[number]);
+            }
+        });
+        return result;
+    }
 
-        Arrays.stream(arrayContainsRussianWords(htmlToText(text)))
-                .filter(getStringPredicate())
-                .forEach(s -> put(lemmas));
-        return lemmas;
+    public String[] lemmatizePhrase(String phrase) {
+        return lemmatizeTokens(phrase, findTokens(phrase));
     }
 
-    private void put(Map<String, String> lemmas) {
-        Consumer<String> consumer = s -> {
-            if (!luceneMorphology.getNormalForms(s).isEmpty()) {
-                lemmas.put(luceneMorphology.getNormalForms(s).get(0), s);
-            }
-        };
+    public Map<String, Integer> collectText(String text) {
+        return toLemmas(tokenize(text));
+    }
+
+    public TokenOffsets findTokens(String text) {
+        TokenOffsets offsets = new TokenOffsets();
+        new WordTokenizer(new WordCounts(), offsets).feed(text);
+        return offsets;
+    }
+
+    public String[] lemmatizeTokens(String text, TokenOffsets offsets) {
+        String[] lemmas = new String[offsets.size()];
+        for (int i = 0; i < lemmas.length; i++) {
+            lemmas[i] = wordFormCache.get(WordTokenizer.normalize(text, offsets.start(i), offsets.end(i))).normalForm();
+        }
+        return lemmas;
     }
 
-    private String[] arrayContainsRussianWords(String text) {
-        return text.toLowerCase(Locale.ROOT)
-                .replaceAll("([^а-я\\s])", " ")
-                .trim()
-                .split("\\s+");
+    private WordCounts tokenize(String text) {
+        WordCounts counts = new WordCounts();
+        new WordTokenizer(counts).feed(text);
+        return counts;
     }
 
-    private boolean hasParticleProperty(String value) {
-        return luceneMorphology
-                .getMorphInfo(value)
-                .stream().noneMatch(word -> Arrays.stream(PARTICLES_NAMES)
-                        .anyMatch(part -> word.toUpperCase().contains(part)));
+    private Map<String, Integer> toLemmas(WordCounts counts) {
+        Map<String, Integer> lemmas = new HashMap<>();
+        for (int i = 0; i < counts.size(); i++) {
+            WordForm wordForm = wordFormCache.get(counts.word(i));
+            if (!wordForm.isSkipped()) {
+                lemmas.merge(wordForm.normalForm(), counts.count(i), Integer::sum);
+            }
+        }
+        return lemmas;
     }
 
-    public Map<Lemma, Double> getSearchQueryLemma(SearchRequestDto searchRequestDto) {
-        String query = searchRequestDto.getQuery();
-        String site = searchRequestDto.getSite();
-        SiteModel siteModel = siteModelService.findSiteByUrl(site);
-        Set<String> lemmas = collect(query).keySet();
+    public Map<Lemma, Double> getSearchQueryLemma(Set<String> lemmas, SiteModel siteModel) {
         if (siteModel != null) {
             return lemmaModelService.getLemmaBySite(lemmas, siteModel);
         }
         return lemmaModelService.getLemmaAllSite(lemmas);
     }
-
-    private String htmlToText(String html) {
-        String body = html.replaceAll(EXCESS_TAGS, " ");
-        return Jsoup.clean(
-                body, "", Safelist.none(),
-                new Document.OutputSettings().prettyPrint(true)
-        ).trim();
-    }
 }
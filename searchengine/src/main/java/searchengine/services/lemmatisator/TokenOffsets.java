@@ -0,0 +1,94 @@
+package searchengine.services.lemmatisator;
+
+import java.util.Arrays;
+
+public final class TokenOffsets {
+    public static final TokenOffsets EMPTY = new TokenOffsets(new int[0], new int[0], 0);
+    private int[] starts;
+    private int[] lengths;
+    private int size;
+
+    public TokenOffsets() {
+        this(new int[256], new int[256], 0);
+    }
+
+    private TokenOffsets(int[] starts, int[] lengths, int size) {
+        this.starts = starts;
+        this.lengths = lengths;
+        this.size = size;
+    }
+
+    void add(int start, int length) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+        }
+        starts[size] = start;
+        lengths[size++] = length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int start(int token) {
+        return starts[token];
+    }
+
+    public int end(int token) {
+        return starts[token] + lengths[token];
+    }
+
+    public byte[] encode() {
+        byte[] data = new byte[5 + size * 4];
+        int position = writeVarInt(data, 0, size);
+        int previousEnd = 0;
+        for (int i = 0; i < size; i++) {
+            if (position + 10 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            position = writeVarInt(data, position, starts[i] - previousEnd);
+            position = writeVarInt(data, position, lengths[i]);
+            previousEnd = starts[i] + lengths[i];
+        }
+        return Arrays.copyOf(data, position);
+    }
+
+    public static TokenOffsets decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return EMPTY;
+        }
+        int[] position = {0};
+        int size = readVarInt(data, position);
+        int[] starts = new int[size];
+        int[] lengths = new int[size];
+        int previousEnd = 0;
+        for (int i = 0; i < size; i++) {
+            starts[i] = previousEnd + readVarInt(data, position);
+            lengths[i] = readVarInt(data, position);
+            previousEnd = starts[i] + lengths[i];
+        }
+        return new TokenOffsets(starts, lengths, size);
+    }
+
+    private static int writeVarInt(byte[] data, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarInt(byte[] data, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,98 @@
+package searchengine.services.lemmatisator;
+
+import java.util.Arrays;
+
+final class WordCounts {
+    private char[] chars = new char[1024];
+    private int charsLength;
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private int[] hashes = new int[64];
+    private int[] counts = new int[64];
+    private int size;
+    private int[] slots = new int[128];
+
+    int add(char[] word, int length) {
+        int hash = hash(word, length);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (hashes[entry] == hash && matches(entry, word, length)) {
+                counts[entry]++;
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int entry = insert(word, length, hash);
+        slots[slot] = entry + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return entry;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String word(int entry) {
+        return new String(chars, offsets[entry], lengths[entry]);
+    }
+
+    int count(int entry) {
+        return counts[entry];
+    }
+
+    private int insert(char[] word, int length, int hash) {
+        if (charsLength + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charsLength + length));
+        }
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(word, 0, chars, charsLength, length);
+        offsets[size] = charsLength;
+        lengths[size] = length;
+        hashes[size] = hash;
+        counts[size] = 1;
+        charsLength += length;
+        return size++;
+    }
+
+    private boolean matches(int entry, char[] word, int length) {
+        if (lengths[entry] != length) {
+            return false;
+        }
+        int offset = offsets[entry];
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hashes[entry] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private static int hash(char[] word, int length) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ word[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,9 @@
+package searchengine.services.lemmatisator;
+
+public record WordForm(String normalForm) {
+    public static final WordForm SKIPPED = new WordForm(null);
+
+    public boolean isSkipped() {
+        return normalForm == null;
+    }
+}
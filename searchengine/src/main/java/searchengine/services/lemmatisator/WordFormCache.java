@@ -0,0 +1,66 @@
+package searchengine.services.lemmatisator;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.apache.lucene.morphology.english.EnglishLuceneMorphology;
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.springframework.stereotype.Component;
+import searchengine.config.LemmatizerConfiguration;
+import searchengine.model.Language;
+
+import java.util.List;
+
+@Component
+public class WordFormCache {
+    private static final String[] RUSSIAN_PARTICLES = new String[]{"МЕЖД", "ПРЕДЛ", "СОЮЗ", "ЧАСТ", "МС", "МС-П", "ВВОДН"};
+    private static final String[] ENGLISH_PARTICLES = new String[]{"ARTICLE", "CONJ", "PREP", "PART", "INT", "PN"};
+    private final LuceneMorphology russianMorphology;
+    private final LuceneMorphology englishMorphology;
+    private final LoadingCache<String, WordForm> cache;
+
+    public WordFormCache(RussianLuceneMorphology russianMorphology,
+                         EnglishLuceneMorphology englishMorphology,
+                         LemmatizerConfiguration lemmatizerConfiguration,
+                         MeterRegistry meterRegistry) {
+        this.russianMorphology = russianMorphology;
+        this.englishMorphology = englishMorphology;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(lemmatizerConfiguration.getCacheSize())
+                .recordStats()
+                .build(this::analyze);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "word-forms");
+    }
+
+    public WordForm get(String word) {
+        if (word.length() < 2) {
+            return WordForm.SKIPPED;
+        }
+        return cache.get(word);
+    }
+
+    private WordForm analyze(String word) {
+        boolean english = Language.of(word) == Language.ENGLISH;
+        LuceneMorphology morphology = english ? englishMorphology : russianMorphology;
+        if (!morphology.checkString(word)
+                || isParticle(morphology.getMorphInfo(word), english ? ENGLISH_PARTICLES : RUSSIAN_PARTICLES)) {
+            return WordForm.SKIPPED;
+        }
+        List<String> normalForms = morphology.getNormalForms(word);
+        return normalForms.isEmpty() ? WordForm.SKIPPED : new WordForm(normalForms.get(0));
+    }
+
+    private boolean isParticle(List<String> morphInfo, String[] particles) {
+        for (String info : morphInfo) {
+            String grammar = info.substring(info.indexOf('|') + 1).toUpperCase();
+            for (String particle : particles) {
+                if (grammar.contains(particle)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
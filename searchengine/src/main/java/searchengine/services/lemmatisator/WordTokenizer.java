@@ -0,0 +1,98 @@
+package searchengine.services.lemmatisator;
+
+import java.util.Arrays;
+
+final class WordTokenizer {
+    private static final int MIN_WORD_LENGTH = 2;
+    private static final int MAX_WORD_LENGTH = 64;
+    private final char[] word = new char[MAX_WORD_LENGTH];
+    private final WordCounts counts;
+    private final TokenOffsets offsets;
+    private int[] entries = new int[0];
+    private int length;
+    private int start;
+    private boolean latin;
+    private boolean overflow;
+
+    WordTokenizer(WordCounts counts) {
+        this(counts, null);
+    }
+
+    WordTokenizer(WordCounts counts, TokenOffsets offsets) {
+        this.counts = counts;
+        this.offsets = offsets;
+        if (offsets != null) {
+            entries = new int[256];
+        }
+    }
+
+    int[] entries() {
+        return Arrays.copyOf(entries, offsets == null ? 0 : offsets.size());
+    }
+
+    void feed(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char letter = toLower(text.charAt(i));
+            if (letter == 0) {
+                endWord();
+                continue;
+            }
+            boolean latinLetter = letter <= 'z';
+            if (latinLetter != latin) {
+                endWord();
+                latin = latinLetter;
+            }
+            if (length == 0) {
+                start = i;
+            }
+            if (length < MAX_WORD_LENGTH) {
+                word[length++] = letter;
+            } else {
+                overflow = true;
+            }
+        }
+        endWord();
+    }
+
+    private void endWord() {
+        if (length >= MIN_WORD_LENGTH && !overflow) {
+            int entry = counts.add(word, length);
+            if (offsets != null) {
+                if (offsets.size() == entries.length) {
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                entries[offsets.size()] = entry;
+                offsets.add(start, length);
+            }
+        }
+        length = 0;
+        overflow = false;
+    }
+
+    static String normalize(String text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = toLower(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static char toLower(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        if (c >= 'а' && c <= 'я') {
+            return c;
+        }
+        if (c >= 'А' && c <= 'Я') {
+            return (char) (c + ('а' - 'А'));
+        }
+        if (c == 'ё' || c == 'Ё') {
+            return 'е';
+        }
+        return 0;
+    }
+}
@@ -2,21 +2,23 @@ package searchengine.services.parser;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import searchengine.config.CrawlConfiguration;
+import searchengine.config.Site;
 import searchengine.config.SitesList;
 import searchengine.model.IndexState;
 import searchengine.model.SiteModel;
+import searchengine.model.Status;
 import searchengine.services.SiteModelService;
+import searchengine.services.crawler.CrawlScheduler;
 import searchengine.services.index.PageIndexerHandlerImpl;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 
 @Service
@@ -24,7 +26,8 @@ import java.util.concurrent.Future;
 @Log4j2
 public class AsyncParserServiceImpl implements AsyncParserService {
     private final SiteModelService siteModelService;
-    private final ObjectProvider<WebsiteParser> provider;
+    private final CrawlScheduler crawlScheduler;
+    private final CrawlConfiguration crawlConfiguration;
     private final ParseState parseState;
     private final IndexState state;
     private final PageIndexerHandlerImpl indexer;
@@ -34,13 +37,16 @@ public class AsyncParserServiceImpl implements AsyncParserService {
     @Override
     public void startIndexingPages(SitesList list) {
         parseState.setState(false);
-        ExecutorService executorService = Executors.newCachedThreadPool();
-        List<WebsiteParser> parsers = initService(list);
+        List<CompletableFuture<SiteModel>> crawls = list.getSites().stream()
+                .map(this::crawl)
+                .toList();
         try {
-            for (Future<SiteModel> siteModelFuture : executorService.invokeAll(parsers)) {
-                siteModelService.save(siteModelFuture.get());
+            List<SiteModel> siteModels = new ArrayList<>();
+            for (CompletableFuture<SiteModel> crawl : crawls) {
+                siteModels.add(crawl.get());
             }
-            executorService.shutdown();
+            indexer.flush();
+            siteModels.forEach(siteModelService::save);
             state.setIndexing(false);
         } catch (InterruptedException | ExecutionException e) {
             log.error(e.getMessage());
@@ -49,6 +55,28 @@ public class AsyncParserServiceImpl implements AsyncParserService {
     }
 
 
+    private CompletableFuture<SiteModel> crawl(Site site) {
+        SiteModel siteModel = siteModelService.findSiteByUrl(site.getUrl());
+        if (siteModel != null && siteModel.getStatus() != Status.INDEXED && crawlScheduler.canResume(siteModel)) {
+            markIndexing(siteModel);
+            return crawlScheduler.resume(siteModel);
+        }
+        if (siteModel != null && crawlConfiguration.isIncremental()) {
+            LocalDateTime indexedAt = siteModel.getStatus() == Status.INDEXED ? siteModel.getStatusTime() : null;
+            markIndexing(siteModel);
+            return crawlScheduler.refresh(siteModel, indexedAt);
+        }
+        return crawlScheduler.crawl(siteModelService.reSaveSite(site));
+    }
+
+    private void markIndexing(SiteModel siteModel) {
+        siteModel.setStatus(Status.INDEXING);
+        siteModel.setLastError(null);
+        siteModel.setStatusTime(LocalDateTime.now());
+        siteModelService.save(siteModel);
+    }
+
+
     @Override
     public void startIndexingPage(String url, SiteModel siteModel) {
         indexer.indexPage(url, siteModel);
@@ -60,16 +88,5 @@ public class AsyncParserServiceImpl implements AsyncParserService {
     public void stopIndexing() {
         parseState.setState(true);
     }
-
-
-    private List<WebsiteParser> initService(SitesList list) {
-        List<WebsiteParser> parsers = new ArrayList<>();
-        list.getSites().forEach(site -> provider.forEach(service -> {
-            service.setUrl(site.getUrl());
-            service.setSiteModel(siteModelService.reSaveSite(site));
-            parsers.add(service);
-        }));
-        return parsers;
-    }
 }
 
@@ -0,0 +1,7 @@
+package searchengine.services.search;
+
+public record Phrase(int[] lemmaIds, int[] offsets) {
+    public int size() {
+        return lemmaIds.length;
+    }
+}
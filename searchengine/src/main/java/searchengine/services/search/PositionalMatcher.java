@@ -0,0 +1,156 @@
+package searchengine.services.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfiguration;
+import searchengine.repository.IndexJdbcRepository;
+import searchengine.services.invertedindex.PositionCodec;
+import searchengine.services.invertedindex.PostingConsumer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class PositionalMatcher {
+    private static final int CANDIDATE_CHUNK = 1000;
+    private final IndexJdbcRepository indexJdbcRepository;
+    private final SearchConfiguration searchConfiguration;
+
+    public boolean isEnabled() {
+        return searchConfiguration.isPositions();
+    }
+
+    public Map<Integer, Map<Integer, int[]>> loadPositions(Collection<Integer> pageIds, Collection<Integer> lemmaIds) {
+        Map<Integer, Map<Integer, int[]>> positions = new HashMap<>();
+        indexJdbcRepository.findPositions(pageIds, lemmaIds).forEach((pageId, lemmas) -> {
+            Map<Integer, int[]> decoded = new HashMap<>();
+            lemmas.forEach((lemmaId, data) -> decoded.put(lemmaId, PositionCodec.decode(data)));
+            positions.put(pageId, decoded);
+        });
+        return positions;
+    }
+
+    public PhraseFilter phraseFilter(List<Phrase> phrases, PostingConsumer target) {
+        return new PhraseFilter(phrases, target);
+    }
+
+    public List<ScoredPage> rerank(List<ScoredPage> pool, Map<Integer, Map<Integer, int[]>> positions,
+                                   int offset, int limit) {
+        List<ScoredPage> rescored = new ArrayList<>(pool.size());
+        double maxScore = 0;
+        for (ScoredPage page : pool) {
+            double score = page.relevance() * proximityFactor(positions.getOrDefault(page.pageId(), Map.of()));
+            rescored.add(new ScoredPage(page.pageId(), score));
+            maxScore = Math.max(maxScore, score);
+        }
+        rescored.sort(Comparator.comparingDouble(ScoredPage::relevance).reversed()
+                .thenComparingInt(ScoredPage::pageId));
+        List<ScoredPage> result = new ArrayList<>();
+        for (int i = Math.max(0, offset); i < Math.min(rescored.size(), offset + limit); i++) {
+            ScoredPage page = rescored.get(i);
+            result.add(new ScoredPage(page.pageId(), maxScore == 0 ? 0 : page.relevance() / maxScore));
+        }
+        return result;
+    }
+
+    private double proximityFactor(Map<Integer, int[]> pagePositions) {
+        if (pagePositions.size() < 2) {
+            return 1;
+        }
+        int span = minSpan(pagePositions.values().toArray(int[][]::new));
+        return span == Integer.MAX_VALUE ? 1 : 1 + searchConfiguration.getProximityBoost() * pagePositions.size() / span;
+    }
+
+    static int minSpan(int[][] lists) {
+        int[] pointers = new int[lists.length];
+        int best = Integer.MAX_VALUE;
+        while (true) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            int minList = -1;
+            for (int i = 0; i < lists.length; i++) {
+                if (pointers[i] >= lists[i].length) {
+                    return best;
+                }
+                int position = lists[i][pointers[i]];
+                if (position < min) {
+                    min = position;
+                    minList = i;
+                }
+                max = Math.max(max, position);
+            }
+            best = Math.min(best, max - min + 1);
+            pointers[minList]++;
+        }
+    }
+
+    static boolean containsPhrase(Map<Integer, int[]> pagePositions, Phrase phrase) {
+        if (pagePositions.isEmpty() || phrase.size() == 0) {
+            return true;
+        }
+        int[] first = pagePositions.get(phrase.lemmaIds()[0]);
+        if (first == null) {
+            return false;
+        }
+        for (int start : first) {
+            boolean matched = true;
+            for (int i = 1; i < phrase.size() && matched; i++) {
+                int[] positions = pagePositions.get(phrase.lemmaIds()[i]);
+                matched = positions != null
+                        && Arrays.binarySearch(positions, start + phrase.offsets()[i] - phrase.offsets()[0]) >= 0;
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public class PhraseFilter implements PostingConsumer {
+        private final List<Phrase> phrases;
+        private final PostingConsumer target;
+        private final List<Integer> lemmaIds = new ArrayList<>();
+        private final int[] pageIds = new int[CANDIDATE_CHUNK];
+        private final double[] scores = new double[CANDIDATE_CHUNK];
+        private int size;
+
+        private PhraseFilter(List<Phrase> phrases, PostingConsumer target) {
+            this.phrases = phrases;
+            this.target = target;
+            phrases.forEach(phrase -> Arrays.stream(phrase.lemmaIds()).forEach(lemmaIds::add));
+        }
+
+        @Override
+        public void accept(int pageId, double score) {
+            pageIds[size] = pageId;
+            scores[size++] = score;
+            if (size == CANDIDATE_CHUNK) {
+                flush();
+            }
+        }
+
+        public void flush() {
+            if (size == 0) {
+                return;
+            }
+            List<Integer> candidates = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                candidates.add(pageIds[i]);
+            }
+            Map<Integer, Map<Integer, int[]>> positions = loadPositions(candidates, lemmaIds);
+            for (int i = 0; i < size; i++) {
+                Map<Integer, int[]> pagePositions = positions.getOrDefault(pageIds[i], Map.of());
+                if (phrases.stream().allMatch(phrase -> containsPhrase(pagePositions, phrase))) {
+                    target.accept(pageIds[i], scores[i]);
+                }
+            }
+            size = 0;
+        }
+    }
+}
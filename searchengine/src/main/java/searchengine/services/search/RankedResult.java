@@ -0,0 +1,30 @@
+package searchengine.services.search;
+
+import searchengine.dto.search.SearchData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public record RankedResult(List<ScoredPage> pages, int total, int depth, long generation,
+                           Set<String> lemmas, Set<Integer> lemmaIds, Map<Integer, SearchData> rendered) {
+
+    public RankedResult(List<ScoredPage> pages, int total, int depth, long generation,
+                        Set<String> lemmas, Set<Integer> lemmaIds) {
+        this(pages, total, depth, generation, lemmas, lemmaIds, new ConcurrentHashMap<>());
+    }
+
+    public boolean covers(int count) {
+        return count <= depth || pages.size() >= total;
+    }
+
+    public List<ScoredPage> slice(int offset, int limit) {
+        int from = Math.min(Math.max(0, offset), pages.size());
+        return pages.subList(from, Math.min(pages.size(), from + Math.max(0, limit)));
+    }
+
+    public int weight() {
+        return 1 + pages.size();
+    }
+}
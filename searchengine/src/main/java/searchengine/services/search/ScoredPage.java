@@ -0,0 +1,4 @@
+package searchengine.services.search;
+
+public record ScoredPage(int pageId, double relevance) {
+}
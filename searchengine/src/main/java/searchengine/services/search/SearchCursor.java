@@ -0,0 +1,59 @@
+package searchengine.services.search;
+
+import org.springframework.http.HttpStatus;
+import searchengine.exceptions.ApiRequestException;
+import searchengine.exceptions.ErrorMessages;
+import searchengine.exceptions.FaultResponse;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Отпечаток запроса не даёт продолжить курсор другим запросом.
+ */
+public record SearchCursor(int queryHash, double score, int pageId) {
+    private static final int LENGTH = Integer.BYTES + Double.BYTES + Integer.BYTES;
+
+    public SearchCursor(SearchKey key, double score, int pageId) {
+        this(hash(key), score, pageId);
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .putInt(queryHash)
+                .putDouble(score)
+                .putInt(pageId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static SearchCursor decode(String cursor, SearchKey key) {
+        if (cursor.isBlank()) {
+            return null;
+        }
+        SearchCursor decoded;
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor.trim());
+            if (bytes.length != LENGTH) {
+                throw invalid();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            decoded = new SearchCursor(buffer.getInt(), buffer.getDouble(), buffer.getInt());
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        if (decoded.queryHash() != hash(key)) {
+            throw invalid();
+        }
+        return decoded;
+    }
+
+    private static int hash(SearchKey key) {
+        return Objects.hash(key.siteId(), key.lemmas(), key.phrases());
+    }
+
+    private static ApiRequestException invalid() {
+        return new ApiRequestException(HttpStatus.BAD_REQUEST,
+                new FaultResponse(false, ErrorMessages.INVALID_CURSOR.getValue()));
+    }
+}
@@ -3,33 +3,53 @@ package searchengine.services.search;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
-import org.jsoup.Jsoup;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import searchengine.config.SearchConfiguration;
 import searchengine.dto.search.SearchData;
+import searchengine.dto.search.SearchRequest;
 import searchengine.dto.search.SearchRequestDto;
 import searchengine.dto.search.SearchResponse;
 import searchengine.exceptions.ApiRequestException;
 import searchengine.exceptions.ErrorMessages;
 import searchengine.exceptions.FaultResponse;
-import searchengine.model.Index;
-import searchengine.model.PageModel;
-import searchengine.services.IndexModelService;
+import searchengine.model.Lemma;
+import searchengine.model.SiteModel;
+import searchengine.services.LemmaModelService;
+import searchengine.repository.PageSummary;
 import searchengine.services.PageModelService;
+import searchengine.services.SiteModelService;
+import searchengine.services.index.PageContext;
+import searchengine.services.invertedindex.IndexSearcher;
+import searchengine.services.lemmatisator.LemmaFinder;
+import searchengine.services.lemmatisator.TokenOffsets;
 import searchengine.services.snippetcreator.SnippetCreator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Log4j2
 public class SearchHandlerImpl implements SearchHandler {
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]+)\"");
     private final PageModelService pageModelService;
     private final SnippetCreator snippetCreator;
-    private final IndexModelService indexModelService;
+    private final LemmaFinder lemmaFinder;
+    private final LemmaModelService lemmaModelService;
+    private final IndexSearcher indexSearcher;
+    private final PositionalMatcher positionalMatcher;
+    private final SearchConfiguration searchConfiguration;
+    private final SiteModelService siteModelService;
+    private final SearchResultCache searchResultCache;
 
 
     @Override
@@ -39,67 +59,193 @@ public class SearchHandlerImpl implements SearchHandler {
             throw new ApiRequestException(HttpStatus.BAD_REQUEST,
                     new FaultResponse(false, ErrorMessages.EMPTY_SEARCH.getValue()));
         }
-        return getSearchResponse(searchRequestDto);
+        if (!indexSearcher.isReady()) {
+            throw new ApiRequestException(HttpStatus.SERVICE_UNAVAILABLE,
+                    new FaultResponse(false, ErrorMessages.INDEX_IS_LOADING.getValue()));
+        }
+        Query parsed = parseQuery(searchRequestDto);
+        return searchRequestDto.getCursor() == null
+                ? getSearchResponse(searchRequestDto, parsed)
+                : getCursorResponse(searchRequestDto, parsed);
+    }
+
+    private Query parseQuery(SearchRequestDto searchRequestDto) {
+        SiteModel siteModel = siteModelService.findSiteByUrl(searchRequestDto.getSite());
+        Set<String> lemmas = lemmaFinder.collectText(searchRequestDto.getQuery()).keySet();
+        List<String[]> phrases = positionalMatcher.isEnabled() ? parsePhrases(searchRequestDto.getQuery()) : List.of();
+        SearchKey key = new SearchKey(siteModel == null ? null : siteModel.getId(),
+                lemmas.stream().sorted().toList(),
+                phrases.stream().map(Arrays::asList).toList());
+        return new Query(key, siteModel, lemmas, phrases);
     }
 
 
     @NotNull
-    private SearchResponse getSearchResponse(SearchRequestDto searchRequestDto) {
-        Set<PageModel> pageModels = pageModelService.getSearchQueryPages(searchRequestDto);
-        Map<PageModel, Double> relevance = getRelativeRelevance(pageModels);
-        List<PageModel> resultList = sortDesc(relevance);
-        List<PageModel> pageable = getPageable(searchRequestDto, resultList);
-        List<SearchData> dataList = collectDataList(searchRequestDto.getQuery(), relevance, pageable);
-        return new SearchResponse(true, resultList.size(), dataList);
+    private SearchResponse getSearchResponse(SearchRequestDto searchRequestDto, Query query) {
+        int offset = Math.max(0, searchRequestDto.getOffset());
+        int limit = searchRequestDto.getLimit();
+        RankedResult result = searchResultCache.get(query.key(), offset + limit)
+                .orElseGet(() -> rank(query, searchResultCache.getDepth(offset + limit)));
+        return new SearchResponse(true, result.total(), render(result, offset, limit));
     }
 
-
     @NotNull
-    private List<SearchData> collectDataList(String query, Map<PageModel, Double> rRel, List<PageModel> pageModels) {
-        return pageModels
-                .stream()
-                .map(page -> initSearchData(query, rRel, page))
-                .toList();
+    private SearchResponse getCursorResponse(SearchRequestDto searchRequestDto, Query query) {
+        int limit = getCursorLimit(searchRequestDto);
+        SearchCursor after = SearchCursor.decode(searchRequestDto.getCursor(), query.key());
+        TopKRanker ranker = after == null
+                ? new TopKRanker(limit)
+                : new TopKRanker(limit, after.score(), after.pageId());
+        long generation = searchResultCache.getGeneration(query.key());
+        Set<Integer> lemmaIds = search(query, ranker);
+        ScoredPage last = ranker.getLast();
+        boolean hasMore = ranker.getCandidates() > limit;
+        RankedResult result = new RankedResult(ranker.getResult(0), ranker.getTotal(), limit, generation,
+                query.lemmas(), lemmaIds);
+        SearchResponse response = new SearchResponse(true, result.total(), render(result, 0, limit));
+        if (hasMore && last != null) {
+            response.setCursor(new SearchCursor(query.key(), last.relevance(), last.pageId()).encode());
+        }
+        return response;
     }
 
+    private int getCursorLimit(SearchRequestDto searchRequestDto) {
+        int limit = searchRequestDto.getLimit();
+        if (limit < 0) {
+            throw new ApiRequestException(HttpStatus.BAD_REQUEST,
+                    new FaultResponse(false, ErrorMessages.INVALID_LIMIT.getValue()));
+        }
+        return limit == 0 ? SearchRequestDto.class.getAnnotation(SearchRequest.class).limit() : limit;
+    }
 
-    private SearchData initSearchData(String query, Map<PageModel, Double> rRel, PageModel pageModel) {
-        return SearchData.builder()
-                .title(Jsoup.parse(pageModel.getContent()).title())
-                .site(pageModel.getSite().getUrl().replaceFirst("/$", ""))
-                .uri(pageModel.getPath())
-                .snippet(snippetCreator.getSnippet(pageModel.getContent(), query))
-                .siteName(pageModel.getSite().getName())
-                .relevance(rRel.get(pageModel))
-                .build();
+    private RankedResult rank(Query query, int depth) {
+        long generation = searchResultCache.getGeneration(query.key());
+        boolean rerank = positionalMatcher.isEnabled() && query.lemmas().size() > 1;
+        TopKRanker ranker = new TopKRanker(rerank ? depth * searchConfiguration.getRerankDepth() : depth);
+        Set<Integer> lemmaIds = search(query, ranker);
+        List<ScoredPage> scoredPages = ranker.getResult(0);
+        if (rerank) {
+            Map<Integer, Map<Integer, int[]>> positions = positionalMatcher.loadPositions(pageIds(scoredPages), lemmaIds);
+            scoredPages = positionalMatcher.rerank(scoredPages, positions, 0, depth);
+        }
+        RankedResult result = new RankedResult(scoredPages, ranker.getTotal(), depth, generation,
+                query.lemmas(), lemmaIds);
+        searchResultCache.put(query.key(), result);
+        return result;
     }
 
+    private Set<Integer> search(Query query, TopKRanker ranker) {
+        Map<Lemma, Double> queryLemmas = lemmaFinder.getSearchQueryLemma(query.lemmas(), query.siteModel());
+        getLemmasBySite(queryLemmas).forEach((siteId, lemmaIds) -> {
+            List<Phrase> sitePhrases = resolvePhrases(query.phrases(), queryLemmas, siteId);
+            if (sitePhrases.isEmpty()) {
+                indexSearcher.search(siteId, lemmaIds, ranker::offer);
+                return;
+            }
+            PositionalMatcher.PhraseFilter filter = positionalMatcher.phraseFilter(sitePhrases, ranker::offer);
+            indexSearcher.search(siteId, lemmaIds, filter);
+            filter.flush();
+        });
+        return queryLemmas.keySet().stream().map(Lemma::getId).collect(Collectors.toSet());
+    }
 
-    private List<PageModel> sortDesc(Map<PageModel, Double> rRel) {
-        return rRel.entrySet()
-                .stream()
-                .sorted(Map.Entry.<PageModel, Double>comparingByValue().reversed())
-                .map(Map.Entry::getKey)
+    private List<SearchData> render(RankedResult result, int offset, int limit) {
+        List<ScoredPage> scoredPages = result.slice(offset, limit);
+        List<Integer> missing = scoredPages.stream()
+                .map(ScoredPage::pageId)
+                .filter(pageId -> !result.rendered().containsKey(pageId))
+                .toList();
+        if (!missing.isEmpty()) {
+            Map<Integer, Map<Integer, int[]>> positions = positionalMatcher.isEnabled()
+                    ? positionalMatcher.loadPositions(missing, result.lemmaIds())
+                    : Map.of();
+            Map<Integer, Double> relevance = scoredPages.stream()
+                    .collect(Collectors.toMap(ScoredPage::pageId, ScoredPage::relevance));
+            pageModelService.getSummaries(missing).forEach(page -> result.rendered().put(page.getId(),
+                    initSearchData(result.lemmas(), positions.getOrDefault(page.getId(), Map.of()), relevance, page)));
+        }
+        return scoredPages.stream()
+                .map(page -> result.rendered().get(page.pageId()))
+                .filter(Objects::nonNull)
                 .toList();
     }
 
-    private Map<PageModel, Double> getAbsoluteRelevance(Set<PageModel> pageModels) {
-        return indexModelService.collectIndexesByPages(pageModels).stream()
-                .collect(Collectors.groupingBy(Index::getPageModel, Collectors.summingDouble(Index::getRank)));
+    private List<Integer> pageIds(List<ScoredPage> scoredPages) {
+        return scoredPages.stream().map(ScoredPage::pageId).toList();
     }
 
+    private List<String[]> parsePhrases(String query) {
+        List<String[]> phrases = new ArrayList<>();
+        Matcher matcher = PHRASE.matcher(query);
+        while (matcher.find()) {
+            phrases.add(lemmaFinder.lemmatizePhrase(matcher.group(1)));
+        }
+        return phrases;
+    }
 
-    private Map<PageModel, Double> getRelativeRelevance(Set<PageModel> pageModels) {
-        Map<PageModel, Double> absoluteRelevance = getAbsoluteRelevance(pageModels);
-        return absoluteRelevance.entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        map -> map.getValue() / absoluteRelevance.values().stream().max(Double::compareTo).get()));
+    private List<Phrase> resolvePhrases(List<String[]> phrases, Map<Lemma, Double> queryLemmas, int siteId) {
+        if (phrases.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> lemmaIds = new HashMap<>();
+        queryLemmas.keySet().stream()
+                .filter(lemma -> lemma.getSite().getId() == siteId)
+                .forEach(lemma -> lemmaIds.put(lemma.getLemma(), lemma.getId()));
+        List<Phrase> resolved = new ArrayList<>();
+        for (String[] phrase : phrases) {
+            List<Integer> ids = new ArrayList<>();
+            List<Integer> offsets = new ArrayList<>();
+            for (int i = 0; i < phrase.length; i++) {
+                Integer lemmaId = phrase[i] == null ? null : lemmaIds.get(phrase[i]);
+                if (lemmaId != null) {
+                    ids.add(lemmaId);
+                    offsets.add(i);
+                }
+            }
+            if (ids.size() > 1) {
+                resolved.add(new Phrase(ids.stream().mapToInt(Integer::intValue).toArray(),
+                        offsets.stream().mapToInt(Integer::intValue).toArray()));
+            }
+        }
+        return resolved;
     }
 
 
-    private List<PageModel> getPageable(SearchRequestDto searchRequestDto, List<PageModel> result) {
-        return result.stream().skip(searchRequestDto.getOffset()).limit(searchRequestDto.getLimit()).toList();
+    private SearchData initSearchData(Set<String> queryLemmas, Map<Integer, int[]> pagePositions,
+                                      Map<Integer, Double> rRel, PageSummary page) {
+        String title = page.getTitle();
+        String text = page.getText();
+        TokenOffsets offsets = TokenOffsets.decode(page.getTokenOffsets());
+        if (text == null) {
+            PageContext context = PageContext.parse(page.getSiteUrl(),
+                    pageModelService.getContent(page.getId()).orElse(""));
+            title = context.getTitle();
+            text = context.getText();
+        }
+        String snippet = pagePositions.isEmpty() || offsets.size() == 0
+                ? snippetCreator.getSnippet(text, offsets, queryLemmas)
+                : snippetCreator.getSnippet(text, offsets, new ArrayList<>(pagePositions.values()));
+        return SearchData.builder()
+                .title(title)
+                .site(page.getSiteUrl().replaceFirst("/$", ""))
+                .uri(page.getPath())
+                .snippet(snippet)
+                .siteName(page.getSiteName())
+                .relevance(rRel.get(page.getId()))
+                .build();
+    }
+
+    private Map<Integer, List<Integer>> getLemmasBySite(Map<Lemma, Double> queryLemmas) {
+        List<Lemma> lemmas = lemmaModelService.getLemmasByQuery(queryLemmas);
+        long wordCount = queryLemmas.keySet().stream().map(Lemma::getLemma).distinct().count();
+        Map<Integer, Long> siteWordCount = queryLemmas.keySet().stream()
+                .collect(Collectors.groupingBy(lemma -> lemma.getSite().getId(), Collectors.counting()));
+        return lemmas.stream()
+                .filter(lemma -> siteWordCount.get(lemma.getSite().getId()) == wordCount)
+                .collect(Collectors.groupingBy(lemma -> lemma.getSite().getId(),
+                        Collectors.mapping(Lemma::getId, Collectors.toList())));
+    }
+
+    private record Query(SearchKey key, SiteModel siteModel, Set<String> lemmas, List<String[]> phrases) {
     }
-}
\ No newline at end of file
+}
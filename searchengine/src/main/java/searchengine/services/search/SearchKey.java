@@ -0,0 +1,6 @@
+package searchengine.services.search;
+
+import java.util.List;
+
+public record SearchKey(Integer siteId, List<String> lemmas, List<List<String>> phrases) {
+}
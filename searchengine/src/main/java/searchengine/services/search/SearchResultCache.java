@@ -0,0 +1,61 @@
+package searchengine.services.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfiguration;
+import searchengine.services.invertedindex.IndexGeneration;
+
+import java.util.Optional;
+
+@Component
+public class SearchResultCache {
+    private final Cache<SearchKey, RankedResult> cache;
+    private final IndexGeneration indexGeneration;
+    private final SearchConfiguration searchConfiguration;
+
+    public SearchResultCache(SearchConfiguration searchConfiguration,
+                             IndexGeneration indexGeneration,
+                             MeterRegistry meterRegistry) {
+        this.searchConfiguration = searchConfiguration;
+        this.indexGeneration = indexGeneration;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(0, searchConfiguration.getCacheWeight()))
+                .weigher((SearchKey key, RankedResult result) -> result.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search-results");
+    }
+
+    public boolean isEnabled() {
+        return searchConfiguration.getCacheWeight() > 0;
+    }
+
+    public int getDepth(int count) {
+        return isEnabled() ? Math.max(count, searchConfiguration.getCacheDepth()) : count;
+    }
+
+    public long getGeneration(SearchKey key) {
+        return indexGeneration.get(key.siteId());
+    }
+
+    public Optional<RankedResult> get(SearchKey key, int count) {
+        RankedResult result = cache.getIfPresent(key);
+        if (result == null) {
+            return Optional.empty();
+        }
+        if (result.generation() != getGeneration(key)) {
+            cache.asMap().remove(key, result);
+            return Optional.empty();
+        }
+        return result.covers(count) ? Optional.of(result) : Optional.empty();
+    }
+
+    public void put(SearchKey key, RankedResult result) {
+        if (isEnabled()) {
+            cache.put(key, result);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package searchengine.services.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Порядок: оценка по убыванию, при равенстве - идентификатор страницы по возрастанию.
+ * Если задана граница (оценка, страница), в кучу попадают только кандидаты после неё.
+ */
+public class TopKRanker {
+    private final int[] pageIds;
+    private final double[] scores;
+    private final double afterScore;
+    private final int afterPageId;
+    private int size;
+    private int total;
+    private int candidates;
+    private double maxScore;
+
+    public TopKRanker(int capacity) {
+        this(capacity, Double.POSITIVE_INFINITY, Integer.MIN_VALUE);
+    }
+
+    public TopKRanker(int capacity, double afterScore, int afterPageId) {
+        pageIds = new int[Math.max(0, capacity)];
+        scores = new double[pageIds.length];
+        this.afterScore = afterScore;
+        this.afterPageId = afterPageId;
+    }
+
+    public void offer(int pageId, double score) {
+        total++;
+        maxScore = Math.max(maxScore, score);
+        if (score > afterScore || score == afterScore && pageId <= afterPageId) {
+            return;
+        }
+        candidates++;
+        if (size < pageIds.length) {
+            pageIds[size] = pageId;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (size > 0 && isBetter(pageId, score, 0)) {
+            pageIds[0] = pageId;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCandidates() {
+        return candidates;
+    }
+
+    public ScoredPage getLast() {
+        return size == 0 ? null : new ScoredPage(pageIds[0], scores[0]);
+    }
+
+    public List<ScoredPage> getResult(int offset) {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        List<ScoredPage> result = new ArrayList<>();
+        for (int i = Math.max(0, offset); i < size; i++) {
+            result.add(new ScoredPage(pageIds[i], maxScore == 0 ? 0 : scores[i] / maxScore));
+        }
+        size = 0;
+        return result;
+    }
+
+    private boolean isBetter(int pageId, double score, int position) {
+        return score > scores[position] || score == scores[position] && pageId < pageIds[position];
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isBetter(pageIds[parent], scores[parent], position)) {
+                return;
+            }
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position, int end) {
+        while (true) {
+            int worst = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < end && !isBetter(pageIds[left], scores[left], worst)) {
+                worst = left;
+            }
+            if (right < end && !isBetter(pageIds[right], scores[right], worst)) {
+                worst = right;
+            }
+            if (worst == position) {
+                return;
+            }
+            swap(position, worst);
+            position = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int pageId = pageIds[i];
+        pageIds[i] = pageIds[j];
+        pageIds[j] = pageId;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
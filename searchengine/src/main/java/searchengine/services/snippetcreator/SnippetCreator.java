@@ -1,87 +1,159 @@
 package searchengine.services.snippetcreator;
 
 import lombok.RequiredArgsConstructor;
-import org.jetbrains.annotations.NotNull;
-import org.jsoup.Jsoup;
 import org.springframework.stereotype.Component;
 import searchengine.services.lemmatisator.LemmaFinder;
+import searchengine.services.lemmatisator.TokenOffsets;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
 public class SnippetCreator {
+    private static final int WINDOW_TOKENS = 30;
+    private static final String ELLIPSIS = "...";
     private final LemmaFinder finder;
 
-    public String getSnippet(String html, String searchQuery) {
-        String text = cleanText(html);
-        List<String> searchWords = getSearchWords(text, searchQuery);
-        List<String> strings = Arrays.stream(text.split("[.]")).toList();
-        return substring(searchWords, strings);
+    public String getSnippet(String text, TokenOffsets offsets, Set<String> queryLemmas) {
+        if (offsets.size() == 0) {
+            offsets = finder.findTokens(text);
+        }
+        if (offsets.size() == 0) {
+            return "";
+        }
+        return getSnippet(text, offsets, matchTokens(finder.lemmatizeTokens(text, offsets), queryLemmas),
+                queryLemmas.size());
     }
 
-    @NotNull
-    private String substring(List<String> searchWords, List<String> strings) {
-        StringBuilder stringBuilder = new StringBuilder();
-        for (String searchWord : searchWords) {
-            for (String string : strings) {
-                if (string.toLowerCase().contains(searchWord)) {
-                    String splitText = getSplitText(searchWord, string.toLowerCase());
-                    stringBuilder.append(splitText);
-                    break;
+    public String getSnippet(String text, TokenOffsets offsets, List<int[]> lemmaPositions) {
+        int[] matches = new int[offsets.size()];
+        Arrays.fill(matches, -1);
+        for (int lemma = 0; lemma < lemmaPositions.size(); lemma++) {
+            for (int position : lemmaPositions.get(lemma)) {
+                if (position < matches.length) {
+                    matches[position] = lemma;
                 }
             }
         }
-        return setBoldWordInText(searchWords, stringBuilder.toString());
+        return matches.length == 0 ? "" : getSnippet(text, offsets, matches, lemmaPositions.size());
+    }
+
+    private String getSnippet(String text, TokenOffsets offsets, int[] matches, int queryCount) {
+        int window = Math.min(WINDOW_TOKENS, matches.length);
+        int start = center(matches, findBestWindow(matches, queryCount, window), window);
+        return render(text, offsets, matches, start, start + window);
+    }
+
+    private int[] matchTokens(String[] lemmas, Set<String> queryLemmas) {
+        Map<String, Integer> queryIndex = new HashMap<>();
+        for (String lemma : queryLemmas) {
+            queryIndex.put(lemma, queryIndex.size());
+        }
+        int[] matches = new int[lemmas.length];
+        for (int i = 0; i < lemmas.length; i++) {
+            Integer index = lemmas[i] == null ? null : queryIndex.get(lemmas[i]);
+            matches[i] = index == null ? -1 : index;
+        }
+        return matches;
     }
 
-    private String setBoldWordInText(List<String> searchWords, String text) {
-        return Arrays.stream(text.split("\\s")).map(str -> {
-            for (String searchWord : searchWords) {
-                if (str.toLowerCase().contains(searchWord)) {
-                    String matchWord = str.toLowerCase();
-                    String cleanWord = matchWord.replaceAll("[^" + matchWord + "]", "");
-                    return "<b>".concat(cleanWord).concat("</b>");
+    private int findBestWindow(int[] matches, int queryCount, int window) {
+        int[] counts = new int[queryCount];
+        int distinct = 0;
+        int hits = 0;
+        for (int i = 0; i < window; i++) {
+            if (matches[i] >= 0) {
+                hits++;
+                if (counts[matches[i]]++ == 0) {
+                    distinct++;
+                }
+            }
+        }
+        long bestScore = score(distinct, hits);
+        int bestStart = 0;
+        for (int start = 1; start + window <= matches.length; start++) {
+            int removed = matches[start - 1];
+            if (removed >= 0) {
+                hits--;
+                if (--counts[removed] == 0) {
+                    distinct--;
+                }
+            }
+            int added = matches[start + window - 1];
+            if (added >= 0) {
+                hits++;
+                if (counts[added]++ == 0) {
+                    distinct++;
                 }
             }
-            return str;
-        }).collect(Collectors.joining(" "));
+            long score = score(distinct, hits);
+            if (score > bestScore) {
+                bestScore = score;
+                bestStart = start;
+            }
+        }
+        return bestStart;
     }
 
-    @NotNull
-    private List<String> getSearchWords(String cleanText, String searchQuery) {
-        Map<String, String> stringStringMap = finder.collectLemmasAndQueryWord(cleanText);
-        Map<String, String> searchLemmas = finder.collectLemmasAndQueryWord(searchQuery);
-        return searchLemmas
-                .keySet().stream()
-                .filter(stringStringMap::containsKey)
-                .map(stringStringMap::get)
-                .toList();
+    private long score(int distinct, int hits) {
+        return (long) distinct * (WINDOW_TOKENS + 1) + hits;
     }
 
-    @NotNull
-    private String cleanText(String html) {
-        return Jsoup.parse(html).body().text();
+    private int center(int[] matches, int start, int window) {
+        int first = -1;
+        int last = -1;
+        for (int i = start; i < start + window; i++) {
+            if (matches[i] >= 0) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first < 0) {
+            return start;
+        }
+        int centered = (first + last) / 2 - window / 2;
+        return Math.max(0, Math.min(matches.length - window, centered));
     }
 
-    private String getSplitText(String word, String cleanText) {
+    private String render(String text, TokenOffsets offsets, int[] matches, int start, int end) {
         StringBuilder builder = new StringBuilder();
-        Matcher matcher = getMatcher(word, cleanText);
-        if (matcher.find()) {
-            builder.append(matcher.group(0).trim()).append(" ... ");
+        if (start > 0) {
+            builder.append(ELLIPSIS);
+        }
+        int position = offsets.start(start);
+        for (int i = start; i < end; i++) {
+            appendEscaped(builder, text, position, offsets.start(i));
+            if (matches[i] >= 0) {
+                builder.append("<b>");
+                appendEscaped(builder, text, offsets.start(i), offsets.end(i));
+                builder.append("</b>");
+            } else {
+                appendEscaped(builder, text, offsets.start(i), offsets.end(i));
+            }
+            position = offsets.end(i);
+        }
+        if (end < offsets.size()) {
+            builder.append(ELLIPSIS);
         }
         return builder.toString();
     }
 
-    @NotNull
-    private Matcher getMatcher(String word, String cleanText) {
-        String regex = "(" + word + ".*?\\s?(\\s*.*?\\s){0,5})|(.*?\\s+){0,5}+(" + word + ".*?)\\s?(\\s*.*?\\s){0,5}";
-        Pattern pattern = Pattern.compile(regex, Pattern.MULTILINE);
-        return pattern.matcher(cleanText);
+    private void appendEscaped(StringBuilder builder, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> builder.append("&amp;");
+                case '<' -> builder.append("&lt;");
+                case '>' -> builder.append("&gt;");
+                case '"' -> builder.append("&quot;");
+                default -> builder.append(c);
+            }
+        }
     }
 }